@@ -0,0 +1,475 @@
+package Socialsphere;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Micro-benchmarks for the performance-sensitive parts of the network.
+// Run with: java Socialsphere.Benchmarks
+public class Benchmarks {
+    private static final PrintStream OUT = System.out;
+
+    public static void main(String[] args) {
+        benchmarkFeedCache();
+        benchmarkPostStorage();
+        benchmarkLikes();
+        benchmarkEventPublish();
+        benchmarkNotificationBurst();
+        benchmarkShardedQueries();
+        benchmarkSnapshotBuild();
+        benchmarkAnalytics(1_000_000, 50_000_000L);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    // Builds a random network while suppressing the per-operation console output
+    static SocialNetwork randomNetwork(int userCount, int friendsPerUser, int postsPerUser, long seed) {
+        Random random = new Random(seed);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            SocialNetwork network = new SocialNetwork();
+            for (int i = 0; i < userCount; i++) {
+                network.addUser("user" + i, "");
+            }
+            for (int i = 0; i < userCount; i++) {
+                for (int j = 0; j < friendsPerUser / 2; j++) {
+                    network.addFriend("user" + i, "user" + random.nextInt(userCount));
+                }
+                for (int j = 0; j < postsPerUser; j++) {
+                    network.createPost("user" + i, "post " + j + " by user" + i);
+                }
+            }
+            return network;
+        } finally {
+            System.setOut(OUT);
+        }
+    }
+
+    // Feed latency and hit rate under eviction. Requests follow a Zipf distribution over
+    // every user, and the feeds of all users together weigh several times the cache
+    // limit, so the hit rate reflects which entries the cache chooses to keep. Each
+    // skew level starts from an empty cache.
+    static void benchmarkFeedCache() {
+        int users = 5_000;
+        int requests = 200_000;
+        SocialNetwork network = randomNetwork(users, 20, 5, 42);
+
+        long keySpaceWeight = 0;
+        for (int i = 0; i < users; i++) {
+            keySpaceWeight += network.getSocialFeed("user" + i).length + 1;
+        }
+        OUT.println("== Feed cache: " + users + " users, " + requests + " requests, all feeds weigh "
+                + keySpaceWeight + " against a cache limit of " + SocialNetwork.cacheWeight() + " ==");
+
+        // Popularity rank -> user, shuffled so that hot users are spread over the network
+        List<String> byRank = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            byRank.add("user" + i);
+        }
+        Collections.shuffle(byRank, new Random(3));
+
+        for (double skew : new double[] {0.0, 0.6, 0.9, 1.2}) {
+            double[] cumulative = new double[users];
+            double total = 0;
+            for (int rank = 0; rank < users; rank++) {
+                total += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = total;
+            }
+            Random random = new Random(7);
+            String[] keys = new String[requests];
+            for (int i = 0; i < requests; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                keys[i] = byRank.get(Math.min(users - 1, rank < 0 ? -rank - 1 : rank));
+            }
+
+            network.cache = SocialNetwork.newCache();
+            // Warm up the JIT and let the cache settle before timing
+            for (int i = 0; i < requests / 10; i++) {
+                network.getSocialFeed(keys[i]);
+            }
+            ResultCache<QueryKey, Object> cache = network.cache;
+            long hitsBefore = cache.hits();
+            long missesBefore = cache.misses();
+            long evictionsBefore = cache.evictions();
+
+            long start = System.nanoTime();
+            for (String key : keys) {
+                network.getSocialFeed(key);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long hits = cache.hits() - hitsBefore;
+            long misses = cache.misses() - missesBefore;
+            OUT.printf("zipf skew %.1f: hit rate %5.1f%%, %8.2f us/request, %7d evictions, %5d entries cached (weight %d)%n",
+                    skew, 100.0 * hits / (hits + misses), elapsed / 1000.0 / requests,
+                    cache.evictions() - evictionsBefore, cache.size(), cache.weightedSize());
+        }
+        network.showCacheStats();
+    }
+
+    // Heap footprint and GC cost of Post objects versus the off-heap columnar store.
+    // The full-GC time is measured with the posts still reachable, which is what
+    // makes a large live set expensive for the collector.
+    static void benchmarkPostStorage() {
+        int posts = 1_000_000;
+        String[] authors = new String[1_000];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = "user" + i;
+        }
+        OUT.println("== Post storage: " + posts + " posts ==");
+
+        long heapBefore = usedHeap();
+        long gcBefore = gcMillis();
+        List<Post> objects = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            objects.add(new Post(i, authors[i % authors.length], "post number " + i + " by " + authors[i % authors.length]));
+        }
+        long loadGc = gcMillis() - gcBefore;
+        long heapAfter = usedHeap();
+        long fullGc = timeFullGc();
+        OUT.printf("Post objects:   %6.1f heap bytes/post, %4d ms GC while loading, %4d ms full GC%n",
+                (double) (heapAfter - heapBefore) / posts, loadGc, fullGc);
+        OUT.println("  (kept " + objects.size() + " posts)");
+        objects = null;
+
+        heapBefore = usedHeap();
+        gcBefore = gcMillis();
+        OffHeapPostStore store = new OffHeapPostStore();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < posts; i++) {
+            store.append(i + 1, authors[i % authors.length], now, 0, "post number " + i + " by " + authors[i % authors.length]);
+        }
+        loadGc = gcMillis() - gcBefore;
+        heapAfter = usedHeap();
+        fullGc = timeFullGc();
+        OUT.printf("Off-heap store: %6.1f heap bytes/post, %4d ms GC while loading, %4d ms full GC, %6.1f off-heap bytes/post reserved%n",
+                (double) (heapAfter - heapBefore) / posts, loadGc, fullGc, (double) store.offHeapBytes() / posts);
+
+        OffHeapPostStore.PostView view = store.view();
+        long likes = 0;
+        long start = System.nanoTime();
+        for (long row = 0; row < store.size(); row++) {
+            likes += view.at(row).likes() + view.timestamp() % 2;
+        }
+        OUT.printf("  scanned %d rows in %d ms (checksum %d)%n", store.size(), (System.nanoTime() - start) / 1_000_000, likes);
+    }
+
+    private static long timeFullGc() {
+        long start = System.nanoTime();
+        System.gc();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // Many threads liking, then unliking, one viral post with distinct users
+    static void benchmarkLikes() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int likesPerThread = 250_000;
+        LikeIndex index = new LikeIndex();
+        Post post = new Post(1, "user0", "viral");
+        OUT.println("== Likes on one post: " + threads + " threads x " + likesPerThread + " users ==");
+
+        for (String phase : new String[] {"like", "unlike"}) {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long firstUser = (long) t * likesPerThread;
+                workers[t] = new Thread(() -> {
+                    for (long user = firstUser; user < firstUser + likesPerThread; user++) {
+                        if (index.toggle(user, post.id)) {
+                            post.addLike();
+                        } else {
+                            post.removeLike();
+                        }
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long total = (long) threads * likesPerThread;
+            OUT.printf("%-6s: %,12.0f toggles/sec, like count now %d, likers listed %d%n",
+                    phase, total * 1e9 / elapsed, post.likes.sum(), index.likersOf(post.id).length);
+        }
+    }
+
+    // Cost a publish adds to a write, with one batching subscriber keeping up
+    static void benchmarkEventPublish() {
+        int events = 10_000_000;
+        EventBus bus = new EventBus(1 << 16);
+        long[] batches = new long[1];
+        bus.subscribe("bench", (event, sequence, endOfBatch) -> {
+            if (endOfBatch) {
+                batches[0]++;
+            }
+        });
+        OUT.println("== Event bus: " + events + " events ==");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            bus.publish(EventType.POST_LIKED, "user1", "user2", i, null);
+        }
+        long elapsed = System.nanoTime() - start;
+        long lag = bus.subscriptions().get(0).lag();
+        while (bus.subscriptions().get(0).lag() > 0) {
+            Thread.onSpinWait();
+        }
+        OUT.printf("%.1f ns/publish, lag right after publishing %d, %d batches (%.1f events/batch)%n",
+                (double) elapsed / events, lag, batches[0], (double) events / Math.max(1, batches[0]));
+    }
+
+    // A viral burst: 1M likes and comments from distinct users on a handful of posts,
+    // pushed through the event bus into the notification engine as fast as possible
+    static void benchmarkNotificationBurst() {
+        int events = 1_000_000;
+        int viralPosts = 10;
+        EventBus bus = new EventBus(1 << 16);
+        NotificationCenter center = new NotificationCenter(50, 10_000, 100);
+        bus.subscribe("notifications", center);
+        OUT.println("== Notification burst: " + events + " events on " + viralPosts + " posts ==");
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            EventType type = i % 7 == 0 ? EventType.POST_COMMENTED : EventType.POST_LIKED;
+            int post = i % viralPosts;
+            bus.publish(type, "fan" + i, "author" + post, post + 1, null);
+        }
+        while (center.eventsSeen() < events) {
+            Thread.onSpinWait();
+        }
+        center.flush();
+        long elapsed = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+
+        OUT.printf("%,.0f events/min, %d deliveries, peak pending %d, %d inbox entries, heap growth %d KB%n",
+                events * 60e9 / elapsed, center.deliveries(), center.peakPending(), center.inboxEntries(),
+                (heapAfter - heapBefore) / 1024);
+        for (Notification notification : center.notificationsOf("author1")) {
+            OUT.println("  author1: " + notification.text());
+        }
+        center.shutdown();
+    }
+
+    // Scatter-gather queries on a sharded network: prints each query's answer together
+    // with the shards, messages and cross-shard edges it needed, then average latency
+    static void benchmarkShardedQueries() {
+        int shardCount = 4;
+        int users = 2_000;
+        int requests = 2_000;
+        Random random = new Random(42);
+        ShardedSocialNetwork network = new ShardedSocialNetwork(shardCount, 1_000);
+        OUT.println("== Sharded queries: " + shardCount + " shards, " + users + " users ==");
+
+        List<Long> postIds = new ArrayList<>();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < users; i++) {
+                network.addUser("user" + i, "");
+            }
+            for (int i = 0; i < users; i++) {
+                for (int j = 0; j < 5; j++) {
+                    network.addFriend("user" + i, "user" + random.nextInt(users));
+                }
+                for (int j = 0; j < 2; j++) {
+                    postIds.add(network.createPost("user" + i, "post " + j + " by user" + i));
+                }
+            }
+            for (int i = 0; i < users; i++) {
+                long postId = postIds.get(random.nextInt(postIds.size()));
+                network.likePost("user" + i, postId);
+                network.commentOnPost("user" + i, postId, "nice");
+            }
+        } finally {
+            System.setOut(OUT);
+        }
+
+        List<Post> feed = network.getSocialFeed("user0");
+        OUT.println("feed of user0: " + feed.size() + " posts, newest " + (feed.isEmpty() ? "-" : "#" + feed.get(0).id
+                + " \"" + feed.get(0).content + "\" likes " + feed.get(0).likes.sum() + " comments " + feed.get(0).getComments().size()));
+        OUT.println("  " + network.lastQueryStats());
+        List<Map.Entry<String, Integer>> suggestions = network.getFriendSuggestions("user0");
+        OUT.println("suggestions for user0: " + suggestions.subList(0, Math.min(3, suggestions.size())));
+        OUT.println("  " + network.lastQueryStats());
+        List<String> path = network.getShortestPath("user0", "user" + (users - 1));
+        OUT.println("path user0 -> user" + (users - 1) + ": " + String.join(" -> ", path));
+        OUT.println("  " + network.lastQueryStats());
+        List<String> likers = network.getPostLikers(postIds.get(0));
+        OUT.println("likers of #" + postIds.get(0) + ": " + likers);
+        OUT.println("  " + network.lastQueryStats());
+
+        String[] queries = {"feed", "suggestions", "shortestPath"};
+        for (int q = 0; q < queries.length; q++) {
+            long messages = network.totalMessages();
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                String username = "user" + random.nextInt(users);
+                if (q == 0) {
+                    network.getSocialFeed(username);
+                } else if (q == 1) {
+                    network.getFriendSuggestions(username);
+                } else {
+                    network.getShortestPath(username, "user" + random.nextInt(users));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            OUT.printf("%-12s %8.1f us/query, %5.1f messages/query%n", queries[q] + ":",
+                    elapsed / 1000.0 / requests, (double) (network.totalMessages() - messages) / requests);
+        }
+        network.printMetrics();
+        network.shutdown();
+    }
+
+    // Time to freeze a live network into a GraphSnapshot, from both the user map and a pinned view
+    static void benchmarkSnapshotBuild() {
+        int users = 50_000;
+        SocialNetwork network = randomNetwork(users, 40, 0, 42);
+        OUT.println("== Snapshot build: " + users + " users ==");
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            GraphSnapshot fromUsers = GraphSnapshot.of(network.users);
+            long usersMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            GraphSnapshot fromView;
+            try (GraphView view = network.versions.snapshot()) {
+                fromView = GraphSnapshot.of(view);
+            }
+            long viewMillis = (System.nanoTime() - start) / 1_000_000;
+            OUT.printf("round %d: %5d ms from users (%d friendships), %5d ms from view (%d friendships)%n",
+                    round, usersMillis, fromUsers.edgeCount(), viewMillis, fromView.edgeCount());
+        }
+    }
+
+    // Uniform random graph built straight into CSR form. Edges are drawn twice from
+    // the same seed, once to count degrees and once to fill the rows, so no edge list
+    // is ever held in memory. Self-loops are skipped and duplicate edges removed.
+    static GraphSnapshot syntheticGraph(int users, long edges, long seed) {
+        if (edges * 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges for an int-indexed CSR");
+        }
+        String[] names = new String[users];
+        for (int i = 0; i < users; i++) {
+            names[i] = "user" + i;
+        }
+
+        int[] offsets = new int[users + 1];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (long e = 0; e < edges; e++) {
+            int u = random.nextInt(users), v = random.nextInt(users);
+            if (u != v) {
+                offsets[u + 1]++;
+                offsets[v + 1]++;
+            }
+        }
+        for (int i = 0; i < users; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] neighbors = new int[offsets[users]];
+        int[] fill = Arrays.copyOf(offsets, users);
+        random = new SplittableRandom(seed);
+        for (long e = 0; e < edges; e++) {
+            int u = random.nextInt(users), v = random.nextInt(users);
+            if (u != v) {
+                neighbors[fill[u]++] = v;
+                neighbors[fill[v]++] = u;
+            }
+        }
+
+        // Sort every row in parallel and squeeze out duplicates; fill[v] becomes the unique count
+        ForkJoinPool.commonPool().invoke(new GraphAnalytics.ForRange(0, users, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int start = offsets[v], end = offsets[v + 1];
+                Arrays.sort(neighbors, start, end);
+                int unique = start;
+                for (int e = start; e < end; e++) {
+                    if (e == start || neighbors[e] != neighbors[e - 1]) {
+                        neighbors[unique++] = neighbors[e];
+                    }
+                }
+                fill[v] = unique - start;
+            }
+        }));
+
+        // Compact the rows towards the front; each row only ever moves left
+        int[] compact = new int[users + 1];
+        for (int v = 0; v < users; v++) {
+            System.arraycopy(neighbors, offsets[v], neighbors, compact[v], fill[v]);
+            compact[v + 1] = compact[v] + fill[v];
+        }
+        return new GraphSnapshot(names, compact, Arrays.copyOf(neighbors, compact[users]));
+    }
+
+    // Every analytics pass on a synthetic graph, timed one by one
+    static void benchmarkAnalytics(int users, long edges) {
+        OUT.println("== Analytics: " + users + " users, " + edges + " random friendships, "
+                + ForkJoinPool.commonPool().getParallelism() + " worker threads ==");
+        long start = System.nanoTime();
+        GraphSnapshot graph = syntheticGraph(users, edges, 42);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        OUT.println("graph built in " + buildMillis + " ms (" + graph.edgeCount() + " distinct friendships)");
+
+        GraphAnalytics analytics = new GraphAnalytics(graph);
+        long total = 0;
+
+        start = System.nanoTime();
+        int[] sizes = analytics.componentSizes(analytics.connectedComponents());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        total += millis;
+        OUT.printf("%-24s %7d ms  (%d components, largest %d)%n", "connected components", millis, sizes.length, sizes.length > 0 ? sizes[0] : 0);
+
+        start = System.nanoTime();
+        double[] rank = analytics.pageRank(0.85, 1e-6, 100);
+        millis = (System.nanoTime() - start) / 1_000_000;
+        total += millis;
+        double maxRank = 0;
+        for (double r : rank) {
+            maxRank = Math.max(maxRank, r);
+        }
+        OUT.printf("%-24s %7d ms  (max rank %.2e)%n", "pagerank", millis, maxRank);
+
+        start = System.nanoTime();
+        long[] triangles = analytics.trianglesPerUser();
+        double[] clustering = analytics.clusteringCoefficients(triangles);
+        millis = (System.nanoTime() - start) / 1_000_000;
+        total += millis;
+        double clusteringSum = 0;
+        for (double c : clustering) {
+            clusteringSum += c;
+        }
+        OUT.printf("%-24s %7d ms  (%d triangles, average clustering %.5f)%n", "triangles + clustering", millis,
+                analytics.triangleCount(triangles), clusteringSum / Math.max(1, users));
+
+        start = System.nanoTime();
+        long[] degrees = analytics.degreeDistribution();
+        millis = (System.nanoTime() - start) / 1_000_000;
+        total += millis;
+        OUT.printf("%-24s %7d ms  (max degree %d)%n", "degree distribution", millis, degrees.length - 1);
+
+        OUT.printf("all analytics: %d ms, %s the one-minute target%n", total, total < 60_000 ? "within" : "over");
+    }
+}
\ No newline at end of file
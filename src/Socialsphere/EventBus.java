@@ -0,0 +1,240 @@
+package Socialsphere;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+enum EventType {
+    USER_ADDED, FRIEND_ADDED, POST_CREATED, POST_DELETED, POST_LIKED, POST_UNLIKED, POST_COMMENTED
+}
+
+// One slot of the ring buffer. Slots are allocated once and overwritten in place,
+// so publishing does not allocate. Handlers must copy anything they keep.
+class ChangeEvent {
+    EventType type;
+    String actor;   // user who made the change
+    String target;  // friend added, or author of the post
+    long postId;
+    String text;    // post content or comment
+
+    @Override
+    public String toString() {
+        return type + " by " + actor + (target != null ? " -> " + target : "") + (postId != 0 ? " #" + postId : "");
+    }
+}
+
+interface EventHandler {
+    // endOfBatch is true for the last event currently available, so handlers can
+    // flush accumulated work once per batch rather than once per event
+    void onEvent(ChangeEvent event, long sequence, boolean endOfBatch);
+}
+
+// Lock-free multi-producer ring buffer in the style of the LMAX Disruptor.
+// Producers claim a sequence with one atomic increment, fill the preallocated slot
+// and mark it published. Each subscriber runs on its own thread, follows the ring
+// with its own sequence and hands every run of published events to its handler as
+// one batch. Producers only wait when the slowest subscriber is a full ring behind.
+// A subscriber that runs out of events spins, then yields, then parks; the next
+// publish unparks it, so an idle bus costs no CPU.
+class EventBus {
+    class Subscription implements Runnable {
+        final String name;
+        private final EventHandler handler;
+        private final AtomicLong sequence;
+        private volatile boolean running = true;
+        private volatile boolean sleeping;
+        private final Thread thread;
+
+        Subscription(String name, EventHandler handler, long start) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this, "events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long available = highestPublished(next);
+                if (available < next) {
+                    idle = waitFor(next, idle);
+                    continue;
+                }
+                idle = 0;
+                for (long seq = next; seq <= available; seq++) {
+                    try {
+                        handler.onEvent(slots[index(seq)], seq, seq == available);
+                    } catch (RuntimeException e) {
+                        System.err.println("Event handler " + name + " failed: " + e);
+                    }
+                }
+                sequence.set(available);
+            }
+        }
+
+        // Idle strategy: spin briefly, then yield, then park until a publisher unparks
+        // us. sleeping is set before the last check for new events and publishers
+        // check it after publishing, so one of the two always sees the other.
+        private int waitFor(long next, int idle) {
+            if (idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                sleeping = true;
+                sleepers.incrementAndGet();
+                if (running && highestPublished(next) < next) {
+                    LockSupport.park(this);
+                }
+                sleepers.decrementAndGet();
+                sleeping = false;
+            }
+            return idle + 1;
+        }
+
+        // Number of published events this subscriber has not processed yet
+        public long lag() {
+            return Math.max(0, cursor.get() - 1 - sequence.get());
+        }
+
+        public void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+
+    private final ChangeEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();  // next sequence to claim
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile long gatingCache = -1;
+    private final AtomicInteger sleepers = new AtomicInteger();  // parked subscribers
+
+    public EventBus(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.slots = new ChangeEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    public Subscription subscribe(String name, EventHandler handler) {
+        Subscription subscription = new Subscription(name, handler, cursor.get() - 1);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    public void publish(EventType type, String actor, String target, long postId, String text) {
+        long sequence = cursor.getAndIncrement();
+        awaitCapacity(sequence);
+        ChangeEvent event = slots[index(sequence)];
+        event.type = type;
+        event.actor = actor;
+        event.target = target;
+        event.postId = postId;
+        event.text = text;
+        published.set(index(sequence), sequence);
+        if (sleepers.get() > 0) {
+            wakeSleepers();
+        }
+    }
+
+    private void wakeSleepers() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.sleeping) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    // Waits until writing 'sequence' would not overwrite an unread slot
+    private void awaitCapacity(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint <= gatingCache) {
+            return;
+        }
+        while (true) {
+            long minimum = minimumSequence(sequence - 1);
+            gatingCache = minimum;
+            if (wrapPoint <= minimum) {
+                return;
+            }
+            LockSupport.parkNanos(1_000);
+        }
+    }
+
+    private long minimumSequence(long fallback) {
+        long minimum = fallback;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.running) {
+                minimum = Math.min(minimum, subscription.sequence.get());
+            }
+        }
+        return minimum;
+    }
+
+    // Highest sequence from 'from' on up to which every slot has been published
+    private long highestPublished(long from) {
+        long limit = cursor.get();
+        long sequence = from;
+        while (sequence < limit && published.get(index(sequence)) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    public long publishedCount() {
+        return cursor.get();
+    }
+
+    public List<Subscription> subscriptions() {
+        return subscriptions;
+    }
+
+    public void printStats() {
+        System.out.println("Events published: " + cursor.get() + " (ring size " + slots.length + ")");
+        for (Subscription subscription : subscriptions) {
+            System.out.println("  " + subscription.name + ": lag " + subscription.lag() + " events");
+        }
+    }
+}
+
+// Counts events by type; subscribed by SocialNetwork for metrics
+class EventCounters implements EventHandler {
+    private final AtomicLongArray counts = new AtomicLongArray(EventType.values().length);
+
+    @Override
+    public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+        counts.incrementAndGet(event.type.ordinal());
+    }
+
+    public long count(EventType type) {
+        return counts.get(type.ordinal());
+    }
+
+    public void print() {
+        for (EventType type : EventType.values()) {
+            System.out.println("  " + type + ": " + count(type));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,523 @@
+package Socialsphere;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+// Frozen friendship graph in compressed sparse row form. Users are numbered 0..n-1
+// and the friends of user v are neighbors[offsets[v] .. offsets[v + 1]), sorted.
+class GraphSnapshot {
+    final String[] names;
+    final int[] offsets;
+    final int[] neighbors;
+
+    GraphSnapshot(String[] names, int[] offsets, int[] neighbors) {
+        this.names = names;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    static GraphSnapshot of(Map<String, User> users) {
+        return of(users.keySet(), username -> users.get(username).getFriends());
+    }
+
+    static GraphSnapshot of(GraphView view) {
+        return of(view.usernames(), view::friendsOf);
+    }
+
+    // Rows are built in parallel; friend names are resolved through a primitive
+    // hash table, so the per-friend lookup neither boxes nor allocates
+    private static GraphSnapshot of(Collection<String> usernames, Function<String, List<String>> friendsOf) {
+        String[] names = usernames.toArray(new String[0]);
+        NameIndex index = new NameIndex(names);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        int[][] rows = new int[names.length][];
+        pool.invoke(new GraphAnalytics.ForRange(0, names.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                List<String> friends = friendsOf.apply(names[i]);
+                int[] row = new int[friends.size()];
+                int count = 0;
+                for (String friend : friends) {
+                    int j = index.indexOf(friend);
+                    if (j >= 0) {
+                        row[count++] = j;
+                    }
+                }
+                row = count == row.length ? row : Arrays.copyOf(row, count);
+                Arrays.sort(row);
+                rows[i] = row;
+            }
+        }));
+
+        int[] offsets = new int[names.length + 1];
+        for (int i = 0; i < names.length; i++) {
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+        int[] neighbors = new int[offsets[names.length]];
+        pool.invoke(new GraphAnalytics.ForRange(0, names.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                System.arraycopy(rows[i], 0, neighbors, offsets[i], rows[i].length);
+            }
+        }));
+        return new GraphSnapshot(names, offsets, neighbors);
+    }
+
+    // Open-addressing map from name to position in the names array, with linear probing
+    private static final class NameIndex {
+        private final String[] keys;
+        private final int[] values;
+        private final int mask;
+
+        NameIndex(String[] names) {
+            int capacity = Integer.highestOneBit(Math.max(1, names.length) * 2) << 1;
+            keys = new String[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < names.length; i++) {
+                int slot = slotOf(names[i]);
+                keys[slot] = names[i];
+                values[slot] = i;
+            }
+        }
+
+        private int slotOf(String name) {
+            int h = name.hashCode();
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (keys[slot] != null && !keys[slot].equals(name)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        int indexOf(String name) {
+            int slot = slotOf(name);
+            return keys[slot] == null ? -1 : values[slot];
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    // Number of undirected friendships
+    long edgeCount() {
+        return neighbors.length / 2;
+    }
+}
+
+// Whole-graph analytics over a GraphSnapshot. Every pass splits the vertex range
+// into ForkJoin tasks and works on primitive arrays only.
+class GraphAnalytics {
+    private static final int GRAIN = 1024;
+
+    private final GraphSnapshot graph;
+    private final ForkJoinPool pool;
+
+    public GraphAnalytics(GraphSnapshot graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public GraphAnalytics(GraphSnapshot graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private interface RangeSum {
+        double sum(int from, int to);
+    }
+
+    static class ForRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final RangeBody body;
+
+        ForRange(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                body.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ForRange(from, mid, body), new ForRange(mid, to, body));
+            }
+        }
+    }
+
+    private static class SumRange extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final RangeSum body;
+
+        SumRange(int from, int to, RangeSum body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= GRAIN) {
+                return body.sum(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SumRange left = new SumRange(from, mid, body);
+            left.fork();
+            double right = new SumRange(mid, to, body).compute();
+            return left.join() + right;
+        }
+    }
+
+    private void parallelFor(RangeBody body) {
+        pool.invoke(new ForRange(0, graph.size(), body));
+    }
+
+    private double parallelSum(RangeSum body) {
+        return pool.invoke(new SumRange(0, graph.size(), body));
+    }
+
+    // Connected components by lock-free union-find: roots are linked with CAS,
+    // always pointing the larger index at the smaller one so no cycles can form.
+    // Returns the component label (smallest member index) of every user.
+    public int[] connectedComponents() {
+        int n = graph.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        parallelFor((from, to) -> {
+            for (int v = from; v < to; v++) {
+                parent.set(v, v);
+            }
+        });
+
+        parallelFor((from, to) -> {
+            for (int u = from; u < to; u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.neighbors[e];
+                    if (u < v) {
+                        union(parent, u, v);
+                    }
+                }
+            }
+        });
+
+        int[] labels = new int[n];
+        parallelFor((from, to) -> {
+            for (int v = from; v < to; v++) {
+                labels[v] = find(parent, v);
+            }
+        });
+        return labels;
+    }
+
+    private static int find(AtomicIntegerArray parent, int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) {
+                return v;
+            }
+            int gp = parent.get(p);
+            // Path halving; losing this race only costs a longer walk next time
+            parent.compareAndSet(v, p, gp);
+            v = gp;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    // Sizes of all components, largest first
+    public int[] componentSizes(int[] labels) {
+        int[] counts = new int[labels.length];
+        for (int label : labels) {
+            counts[label]++;
+        }
+        int components = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                components++;
+            }
+        }
+        int[] sizes = new int[components];
+        int i = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                sizes[i++] = count;
+            }
+        }
+        Arrays.sort(sizes);
+        for (int l = 0, r = sizes.length - 1; l < r; l++, r--) {
+            int t = sizes[l];
+            sizes[l] = sizes[r];
+            sizes[r] = t;
+        }
+        return sizes;
+    }
+
+    // Pull-based PageRank. Stops when the L1 change between iterations drops below
+    // tolerance or after maxIterations. Rank of users without friends is spread evenly.
+    public double[] pageRank(double damping, double tolerance, int maxIterations) {
+        int n = graph.size();
+        if (n == 0) {
+            return new double[0];
+        }
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            double dangling = parallelSum((from, to) -> {
+                double sum = 0;
+                for (int v = from; v < to; v++) {
+                    if (graph.degree(v) == 0) {
+                        sum += current[v];
+                    }
+                }
+                return sum;
+            });
+
+            double base = (1 - damping) / n + damping * dangling / n;
+            double[] target = next;
+            double delta = parallelSum((from, to) -> {
+                double change = 0;
+                for (int v = from; v < to; v++) {
+                    double incoming = 0;
+                    for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                        int u = graph.neighbors[e];
+                        incoming += current[u] / graph.degree(u);
+                    }
+                    target[v] = base + damping * incoming;
+                    change += Math.abs(target[v] - current[v]);
+                }
+                return change;
+            });
+
+            next = rank;
+            rank = target;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    // Triangles through each user. Every friendship is oriented from the endpoint with
+    // fewer friends to the one with more, so each triangle is found exactly once, from
+    // its lowest-ranked corner, which then credits all three corners. The search marks
+    // a user's forward friends in a per-thread stamp array and probes the forward friends
+    // of each of them, which bounds the work by O(m^1.5) even with hub users.
+    public long[] trianglesPerUser() {
+        int n = graph.size();
+        int[] forwardOffsets = new int[n + 1];
+        parallelFor((from, to) -> {
+            for (int v = from; v < to; v++) {
+                int count = 0;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                    if (before(v, graph.neighbors[e])) {
+                        count++;
+                    }
+                }
+                forwardOffsets[v + 1] = count;
+            }
+        });
+        for (int v = 0; v < n; v++) {
+            forwardOffsets[v + 1] += forwardOffsets[v];
+        }
+        int[] forward = new int[forwardOffsets[n]];
+        parallelFor((from, to) -> {
+            for (int v = from; v < to; v++) {
+                int next = forwardOffsets[v];
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                    if (before(v, graph.neighbors[e])) {
+                        forward[next++] = graph.neighbors[e];
+                    }
+                }
+            }
+        });
+
+        AtomicLongArray counts = new AtomicLongArray(n);
+        // stamp[w] == u + 1 while w is marked as a forward friend of u. Each leaf borrows
+        // an array and hands it back, so at most one per concurrently running leaf is
+        // ever allocated and all of them are garbage once this call returns. Leftover
+        // marks of other users never equal u + 1, so arrays need no clearing.
+        ConcurrentLinkedQueue<int[]> stamps = new ConcurrentLinkedQueue<>();
+        parallelFor((from, to) -> {
+            int[] stamp = stamps.poll();
+            if (stamp == null) {
+                stamp = new int[n];
+            }
+            for (int u = from; u < to; u++) {
+                int mark = u + 1;
+                for (int e = forwardOffsets[u]; e < forwardOffsets[u + 1]; e++) {
+                    stamp[forward[e]] = mark;
+                }
+                long found = 0;
+                for (int e = forwardOffsets[u]; e < forwardOffsets[u + 1]; e++) {
+                    int v = forward[e];
+                    for (int f = forwardOffsets[v]; f < forwardOffsets[v + 1]; f++) {
+                        int w = forward[f];
+                        if (stamp[w] == mark) {
+                            found++;
+                            counts.incrementAndGet(v);
+                            counts.incrementAndGet(w);
+                        }
+                    }
+                }
+                if (found > 0) {
+                    counts.addAndGet(u, found);
+                }
+            }
+            stamps.offer(stamp);
+        });
+
+        long[] triangles = new long[n];
+        for (int v = 0; v < n; v++) {
+            triangles[v] = counts.get(v);
+        }
+        return triangles;
+    }
+
+    // Orientation of the friendship u-v: from fewer friends to more, ties broken by index
+    private boolean before(int u, int v) {
+        int du = graph.degree(u), dv = graph.degree(v);
+        return du < dv || (du == dv && u < v);
+    }
+
+    public long triangleCount(long[] trianglesPerUser) {
+        long total = 0;
+        for (long t : trianglesPerUser) {
+            total += t;
+        }
+        return total / 3;
+    }
+
+    // Local clustering coefficient: fraction of a user's friend pairs that are friends
+    public double[] clusteringCoefficients(long[] trianglesPerUser) {
+        double[] coefficients = new double[graph.size()];
+        parallelFor((from, to) -> {
+            for (int v = from; v < to; v++) {
+                long d = graph.degree(v);
+                coefficients[v] = d < 2 ? 0.0 : 2.0 * trianglesPerUser[v] / (d * (d - 1));
+            }
+        });
+        return coefficients;
+    }
+
+    // histogram[d] is the number of users with exactly d friends
+    public long[] degreeDistribution() {
+        int maxDegree = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            maxDegree = Math.max(maxDegree, graph.degree(v));
+        }
+        int slots = maxDegree + 1;
+        return pool.invoke(new HistogramRange(0, graph.size(), slots));
+    }
+
+    private class HistogramRange extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, slots;
+
+        HistogramRange(int from, int to, int slots) {
+            this.from = from;
+            this.to = to;
+            this.slots = slots;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= GRAIN) {
+                long[] histogram = new long[slots];
+                for (int v = from; v < to; v++) {
+                    histogram[graph.degree(v)]++;
+                }
+                return histogram;
+            }
+            int mid = (from + to) >>> 1;
+            HistogramRange left = new HistogramRange(from, mid, slots);
+            left.fork();
+            long[] right = new HistogramRange(mid, to, slots).compute();
+            long[] result = left.join();
+            for (int i = 0; i < slots; i++) {
+                result[i] += right[i];
+            }
+            return result;
+        }
+    }
+
+    // Prints a summary of all analytics
+    public void printReport(int topN) {
+        long start = System.nanoTime();
+        int[] labels = connectedComponents();
+        int[] sizes = componentSizes(labels);
+        double[] rank = pageRank(0.85, 1e-6, 100);
+        long[] triangles = trianglesPerUser();
+        double[] clustering = clusteringCoefficients(triangles);
+        long[] degrees = degreeDistribution();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Users: " + graph.size() + ", Friendships: " + graph.edgeCount());
+        System.out.println("Connected components: " + sizes.length
+                + (sizes.length > 0 ? " (largest has " + sizes[0] + " users)" : ""));
+
+        Integer[] order = new Integer[graph.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(rank[b], rank[a]));
+        System.out.println("Top users by PageRank:");
+        for (int i = 0; i < Math.min(topN, order.length); i++) {
+            System.out.printf("  %s (%.4f)%n", graph.names[order[i]], rank[order[i]]);
+        }
+
+        double clusteringSum = 0;
+        for (double c : clustering) {
+            clusteringSum += c;
+        }
+        System.out.println("Triangles: " + triangleCount(triangles));
+        System.out.printf("Average clustering coefficient: %.4f%n",
+                graph.size() == 0 ? 0.0 : clusteringSum / graph.size());
+
+        System.out.println("Degree distribution:");
+        for (int d = 0; d < degrees.length; d++) {
+            if (degrees[d] > 0) {
+                System.out.println("  " + d + " friends: " + degrees[d] + " users");
+            }
+        }
+        System.out.println("Computed in " + elapsedMillis + " ms");
+    }
+}
\ No newline at end of file
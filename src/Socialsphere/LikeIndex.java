@@ -0,0 +1,266 @@
+package Socialsphere;
+
+import java.util.*;
+
+// Growable list of primitive longs
+class LongList {
+    private long[] values = new long[4];
+    private int size;
+
+    int add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        return size++;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    void set(int index, long value) {
+        values[index] = value;
+    }
+
+    // Removes the last element and returns it
+    long removeLast() {
+        return values[--size];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
+
+// One lock stripe of the like index. Holds every (user, post) pair whose user
+// hashes to this stripe in an open-addressing table with linear probing. Each
+// pair also remembers its position in the post's liker list and in the user's
+// liked list, so both lists support O(1) swap-removal.
+class LikeSegment {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] users;
+    private long[] posts;
+    private int[] likerPositions;
+    private int[] likedPositions;
+    private int size;
+
+    // Likers of each post restricted to this stripe's users, and the posts each user liked
+    private final LongMap<LongList> likers = new LongMap<>();
+    private final LongMap<LongList> liked = new LongMap<>();
+
+    LikeSegment() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        users = new long[capacity];
+        posts = new long[capacity];
+        likerPositions = new int[capacity];
+        likedPositions = new int[capacity];
+        Arrays.fill(users, EMPTY);
+    }
+
+    private static int hash(long user, long post) {
+        long h = user * 0x9E3779B97F4A7C15L + post;
+        h ^= h >>> 32;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    private int find(long user, long post) {
+        int mask = users.length - 1;
+        for (int i = hash(user, post) & mask; users[i] != EMPTY; i = (i + 1) & mask) {
+            if (users[i] == user && posts[i] == post) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int insertSlot(long user, long post) {
+        int mask = users.length - 1;
+        int i = hash(user, post) & mask;
+        while (users[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        users[i] = user;
+        posts[i] = post;
+        return i;
+    }
+
+    private void grow() {
+        long[] oldUsers = users, oldPosts = posts;
+        int[] oldLiker = likerPositions, oldLiked = likedPositions;
+        allocate(oldUsers.length * 2);
+        for (int i = 0; i < oldUsers.length; i++) {
+            if (oldUsers[i] != EMPTY) {
+                int slot = insertSlot(oldUsers[i], oldPosts[i]);
+                likerPositions[slot] = oldLiker[i];
+                likedPositions[slot] = oldLiked[i];
+            }
+        }
+    }
+
+    // Adds the pair if absent, removes it if present. Returns true if it is now liked.
+    synchronized boolean toggle(long user, long post) {
+        int slot = find(user, post);
+        if (slot >= 0) {
+            remove(slot);
+            return false;
+        }
+        if ((size + 1) * 4 > users.length * 3) {
+            grow();
+        }
+        slot = insertSlot(user, post);
+        likerPositions[slot] = listOf(likers, post).add(user);
+        likedPositions[slot] = listOf(liked, user).add(post);
+        size++;
+        return true;
+    }
+
+    private static LongList listOf(LongMap<LongList> lists, long key) {
+        LongList list = lists.get(key);
+        if (list == null) {
+            list = new LongList();
+            lists.put(key, list);
+        }
+        return list;
+    }
+
+    // Removes the pair if present. Returns true if it was there.
+    synchronized boolean unlike(long user, long post) {
+        int slot = find(user, post);
+        if (slot < 0) {
+            return false;
+        }
+        remove(slot);
+        return true;
+    }
+
+    private void remove(int slot) {
+        long user = users[slot];
+        long post = posts[slot];
+
+        // Move the last liker of the post into the hole and fix its stored position
+        LongList postLikers = likers.get(post);
+        int likerPosition = likerPositions[slot];
+        long movedUser = postLikers.removeLast();
+        if (likerPosition < postLikers.size()) {
+            postLikers.set(likerPosition, movedUser);
+            likerPositions[find(movedUser, post)] = likerPosition;
+        }
+        if (postLikers.size() == 0) {
+            likers.remove(post);
+        }
+
+        LongList userLiked = liked.get(user);
+        int likedPosition = likedPositions[slot];
+        long movedPost = userLiked.removeLast();
+        if (likedPosition < userLiked.size()) {
+            userLiked.set(likedPosition, movedPost);
+            likedPositions[find(user, movedPost)] = likedPosition;
+        }
+        if (userLiked.size() == 0) {
+            liked.remove(user);
+        }
+
+        deleteSlot(slot);
+        size--;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int slot) {
+        int mask = users.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; users[i] != EMPTY; i = (i + 1) & mask) {
+            int home = hash(users[i], posts[i]) & mask;
+            // Move entry i into the hole unless its home lies cyclically in (hole, i]
+            boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!stays) {
+                users[hole] = users[i];
+                posts[hole] = posts[i];
+                likerPositions[hole] = likerPositions[i];
+                likedPositions[hole] = likedPositions[i];
+                hole = i;
+            }
+        }
+        users[hole] = EMPTY;
+    }
+
+    synchronized void collectLikers(long post, LongList into) {
+        LongList list = likers.get(post);
+        if (list != null) {
+            for (int i = 0; i < list.size(); i++) {
+                into.add(list.get(i));
+            }
+        }
+    }
+
+    synchronized long[] likedBy(long user) {
+        LongList list = liked.get(user);
+        return list == null ? new long[0] : list.toArray();
+    }
+
+    synchronized void removePost(long post) {
+        LongList list = likers.get(post);
+        while (list != null && list.size() > 0) {
+            remove(find(list.get(list.size() - 1), post));
+            list = likers.get(post);
+        }
+    }
+}
+
+// Who liked what. Pairs are striped across segments by user, so concurrent likes
+// on the same viral post from different users mostly take different locks.
+class LikeIndex {
+    private final LikeSegment[] segments;
+
+    public LikeIndex(int stripes) {
+        int count = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        segments = new LikeSegment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new LikeSegment();
+        }
+    }
+
+    public LikeIndex() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    private LikeSegment segmentFor(long user) {
+        long h = user * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 32) & (segments.length - 1)];
+    }
+
+    public boolean toggle(long user, long post) {
+        return segmentFor(user).toggle(user, post);
+    }
+
+    public boolean unlike(long user, long post) {
+        return segmentFor(user).unlike(user, post);
+    }
+
+    public long[] likersOf(long post) {
+        LongList result = new LongList();
+        for (LikeSegment segment : segments) {
+            segment.collectLikers(post, result);
+        }
+        return result.toArray();
+    }
+
+    public long[] likedBy(long user) {
+        return segmentFor(user).likedBy(user);
+    }
+
+    public void removePost(long post) {
+        for (LikeSegment segment : segments) {
+            segment.removePost(post);
+        }
+    }
+}
\ No newline at end of file
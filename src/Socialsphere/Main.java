@@ -1,10 +1,13 @@
 package Socialsphere;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 // Custom List Implementation (Singly Linked List)
 class CustomList<T> {
     private Node<T> head;
+    private Node<T> tail;
     private int size;
 
     private static class Node<T> {
@@ -19,6 +22,7 @@ class CustomList<T> {
 
     public CustomList() {
         this.head = null;
+        this.tail = null;
         this.size = 0;
     }
 
@@ -27,12 +31,9 @@ class CustomList<T> {
         if (head == null) {
             head = newNode;
         } else {
-            Node<T> current = head;
-            while (current.next != null) {
-                current = current.next;
-            }
-            current.next = newNode;
+            tail.next = newNode;
         }
+        tail = newNode;
         size++;
     }
 
@@ -57,16 +58,45 @@ class CustomList<T> {
         }
         if (index == 0) {
             head = head.next;
+            if (head == null) {
+                tail = null;
+            }
         } else {
             Node<T> current = head;
             for (int i = 0; i < index - 1; i++) {
                 current = current.next;
             }
+            if (current.next == tail) {
+                tail = current;
+            }
             current.next = current.next.next;
         }
         size--;
     }
 
+    // Removes the first element equal to data; returns false if there is none
+    public boolean remove(T data) {
+        Node<T> previous = null;
+        Node<T> current = head;
+        while (current != null) {
+            if (current.data.equals(data)) {
+                if (previous == null) {
+                    head = current.next;
+                } else {
+                    previous.next = current.next;
+                }
+                if (current == tail) {
+                    tail = previous;
+                }
+                size--;
+                return true;
+            }
+            previous = current;
+            current = current.next;
+        }
+        return false;
+    }
+
     public boolean contains(T data) {
         Node<T> current = head;
         while (current != null) {
@@ -78,6 +108,15 @@ class CustomList<T> {
         return false;
     }
 
+    // Copies the elements into a new list in one pass
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(size);
+        for (Node<T> current = head; current != null; current = current.next) {
+            result.add(current.data);
+        }
+        return result;
+    }
+
     public void display() {
         Node<T> current = head;
         while (current != null) {
@@ -217,47 +256,99 @@ class AVLTree {
 
 // Post class, now using CustomList for comments and likes
 class Post {
+    long id;
+    String author;
     String content;
     String timestamp;
-    int likes;
-    CustomList<String> comments;
+    LongAdder likes;  // Striped counter, so a viral post does not serialize its likers
+    private final CustomList<String> comments;  // guarded by this
 
-    public Post(String content) {
+    public Post(long id, String author, String content) {
+        this.id = id;
+        this.author = author;
         this.content = content;
         this.timestamp = new Date().toString();  // Current timestamp
-        this.likes = 0;
+        this.likes = new LongAdder();
         this.comments = new CustomList<>();
     }
 
     public void addLike() {
-        likes++;
+        likes.increment();
     }
 
-    public void addComment(String comment) {
+    public void removeLike() {
+        likes.decrement();
+    }
+
+    public synchronized void addComment(String comment) {
         comments.add(comment);
     }
 
+    // Copy taken under the lock, so readers never walk the list while it is appended to
+    public synchronized List<String> getComments() {
+        return comments.toList();
+    }
+
     public void display() {
-        System.out.println(content + " [Posted at: " + timestamp + "] Likes: " + likes);
+        System.out.println("#" + id + " " + content + " [Posted at: " + timestamp + "] Likes: " + likes.sum());
+        List<String> snapshot = getComments();
         System.out.println("Comments:");
-        if (comments.size() == 0) {
+        if (snapshot.isEmpty()) {
             System.out.println("No comments yet.");
         } else {
-            for (int i = 0; i < comments.size(); i++) {
-                System.out.println("- " + comments.get(i));
+            for (String comment : snapshot) {
+                System.out.println("- " + comment);
             }
         }
     }
 }
 
+// Immutable list of the comments on one post, newest first. Appending allocates one
+// node and shares the rest, so readers can walk a list they fetched without a lock.
+class CommentList {
+    final String comment;
+    final CommentList older;
+    final int size;
+
+    private CommentList(String comment, CommentList older) {
+        this.comment = comment;
+        this.older = older;
+        this.size = 1 + size(older);
+    }
+
+    static int size(CommentList list) {
+        return list == null ? 0 : list.size;
+    }
+
+    static CommentList add(CommentList list, String comment) {
+        return new CommentList(comment, list);
+    }
+
+    // Oldest first
+    static List<String> toList(CommentList list) {
+        String[] comments = new String[size(list)];
+        int i = comments.length;
+        for (CommentList current = list; current != null; current = current.older) {
+            comments[--i] = current.comment;
+        }
+        return Arrays.asList(comments);
+    }
+}
+
 // User class, using CustomList for posts and friends with AVL Tree
 class User {
+    long id;
     String username;
     String bio;
     CustomList<Post> posts;
     AVLTree friends;
 
     public User(String username, String bio) {
+        this(0, username, bio);
+    }
+
+    public User(long id, String username, String bio) {
+        this.id = id;
         this.username = username;
         this.bio = bio;
         this.posts = new CustomList<>();
@@ -281,113 +372,336 @@ class User {
     }
 }
 
+// Key of a cached query result: kind plus one or two usernames
+class QueryKey {
+    static final int FEED = 0, SUGGESTIONS = 1, PATH = 2;
+
+    final int kind;
+    final String user;
+    final String other;
+
+    QueryKey(int kind, String user, String other) {
+        this.kind = kind;
+        this.user = user;
+        this.other = other;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof QueryKey)) {
+            return false;
+        }
+        QueryKey k = (QueryKey) o;
+        return kind == k.kind && user.equals(k.user) && Objects.equals(other, k.other);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * kind + user.hashCode()) + Objects.hashCode(other);
+    }
+}
+
 // SocialNetwork class integrating CustomList and AVL Tree
 class SocialNetwork {
+    private static final long CACHE_WEIGHT = 100_000;
+    private static final int EVENT_RING_SIZE = 1 << 14;
+    private static final int INBOX_SIZE = 50;
+    // Pending notifications hold at most 32 actor names each (see Notification), so
+    // the coalescing table stays around 20 MB even when a burst fills it
+    private static final int MAX_PENDING_NOTIFICATIONS = 10_000;
+    private static final long NOTIFICATION_FLUSH_MILLIS = 500;
+
     Map<String, User> users;
+    Map<Long, User> usersById;
+    // Every post ever created, as rows of an off-heap columnar store in ID order.
+    // Deleted posts keep their row with the DELETED flag set.
+    OffHeapPostStore posts;
+    // Comments of each commented post by post ID; guarded by itself
+    final LongMap<CommentList> comments = new LongMap<>();
+    PostIdGenerator postIds;
+    // Who liked which post
+    LikeIndex likes;
+    private long nextUserId = 1;
+    // Versioned copy of users, friends and posts that long-running reads traverse
+    VersionedGraph versions;
+    // Computed feeds, suggestions and path lengths, weighted by result size
+    ResultCache<QueryKey, Object> cache;
+    // Stream of every mutation, for consumers outside the network
+    EventBus events;
+    EventCounters eventCounts;
+    // Coalesced like, comment and friend notifications per user
+    NotificationCenter notifications;
 
     public SocialNetwork() {
-        users = new HashMap<>();
+        users = new ConcurrentHashMap<>();
+        usersById = new ConcurrentHashMap<>();
+        posts = new OffHeapPostStore();
+        postIds = new PostIdGenerator(0);
+        likes = new LikeIndex();
+        versions = new VersionedGraph();
+        cache = newCache();
+        events = new EventBus(EVENT_RING_SIZE);
+        eventCounts = new EventCounters();
+        events.subscribe("metrics", eventCounts);
+        notifications = new NotificationCenter(INBOX_SIZE, MAX_PENDING_NOTIFICATIONS, NOTIFICATION_FLUSH_MILLIS);
+        events.subscribe("notifications", notifications);
     }
 
-    public void addUser(String username, String bio) {
+    // Empty result cache with the network's weight limit and weigher
+    static ResultCache<QueryKey, Object> newCache() {
+        return new ResultCache<>(CACHE_WEIGHT, value -> value instanceof long[] ? ((long[]) value).length + 1
+                : value instanceof List ? ((List<?>) value).size() + 1 : 1);
+    }
+
+    static long cacheWeight() {
+        return CACHE_WEIGHT;
+    }
+
+    public synchronized void addUser(String username, String bio) {
         if (!users.containsKey(username)) {
-            users.put(username, new User(username, bio));
+            User user = new User(nextUserId++, username, bio);
+            users.put(username, user);
+            usersById.put(user.id, user);
+            versions.addUser(username);
+            events.publish(EventType.USER_ADDED, username, null, 0, null);
             System.out.println(username + " has been added to the network.");
         } else {
             System.out.println("User already exists.");
         }
     }
 
-    public void addFriend(String username, String friendUsername) {
+    public synchronized void addFriend(String username, String friendUsername) {
         User user = users.get(username);
         User friend = users.get(friendUsername);
         if (user != null && friend != null && !user.isFriend(friendUsername)) {
             user.addFriend(friendUsername);
             friend.addFriend(username);
+            versions.addFriendship(username, friendUsername);
+            invalidateFriendship(username, friendUsername);
+            events.publish(EventType.FRIEND_ADDED, username, friendUsername, 0, null);
             System.out.println(friendUsername + " added as a friend to " + username);
         } else {
             System.out.println("Invalid users or already friends.");
         }
     }
 
-    public void createPost(String username, String content) {
+    public synchronized void createPost(String username, String content) {
         User user = users.get(username);
         if (user != null) {
-            Post newPost = new Post(content);
-            user.addPost(newPost);
-            System.out.println(username + " posted: " + content);
+            long id = postIds.nextId();
+            long row = posts.append(id, username, System.currentTimeMillis(), 0, content);
+            versions.addPost(username, row);
+            invalidatePost(username);
+            events.publish(EventType.POST_CREATED, username, username, id, content);
+            System.out.println(username + " posted: " + content + " (post #" + id + ")");
         } else {
             System.out.println("User does not exist.");
         }
     }
 
-    public void likePost(String username, int postIndex) {
-        User user = users.get(username);
-        if (user != null && postIndex >= 0 && postIndex < user.posts.size()) {
-            Post post = user.posts.get(postIndex);
-            post.addLike();
-            System.out.println(username + " liked a post.");
+    // Cursor on the live post with this ID, or null if there is none
+    private OffHeapPostStore.PostView livePost(long postId) {
+        long row = posts.rowOf(postId);
+        if (row < 0) {
+            return null;
+        }
+        OffHeapPostStore.PostView post = posts.view().at(row);
+        return post.isDeleted() ? null : post;
+    }
+
+    // Only the author can delete a post. Other posts keep their IDs. The DELETED flag
+    // is set before likes and comments are cleared, so a concurrent like or comment
+    // either lands before the cleanup and is removed by it, or sees the flag.
+    public synchronized void deletePost(String username, long postId) {
+        OffHeapPostStore.PostView post = livePost(postId);
+        if (post != null && post.author().equals(username)) {
+            post.delete();
+            versions.removePost(username, post.row());
+            likes.removePost(postId);
+            synchronized (comments) {
+                comments.remove(postId);
+            }
+            invalidatePost(username);
+            events.publish(EventType.POST_DELETED, username, username, postId, null);
+            System.out.println(username + " deleted post #" + postId);
         } else {
-            System.out.println("Invalid post index.");
+            System.out.println("Invalid post ID.");
         }
     }
 
-    public void commentOnPost(String username, int postIndex, String comment) {
+    // Likes the post, or takes the like back if the user already liked it
+    public void likePost(String username, long postId) {
         User user = users.get(username);
-        if (user != null && postIndex >= 0 && postIndex < user.posts.size()) {
-            Post post = user.posts.get(postIndex);
-            post.addComment(comment);
-            System.out.println(username + " commented: " + comment);
+        OffHeapPostStore.PostView post = livePost(postId);
+        if (user != null && post != null) {
+            boolean liked = likes.toggle(user.id, postId);
+            if (post.isDeleted()) {
+                // Deleted while we toggled; the delete's cleanup may have missed the pair
+                likes.unlike(user.id, postId);
+                System.out.println("Invalid post ID.");
+            } else if (liked) {
+                post.addLike();
+                events.publish(EventType.POST_LIKED, username, post.author(), postId, null);
+                System.out.println(username + " liked a post.");
+            } else {
+                post.removeLike();
+                events.publish(EventType.POST_UNLIKED, username, post.author(), postId, null);
+                System.out.println(username + " unliked a post.");
+            }
         } else {
-            System.out.println("Invalid post index.");
+            System.out.println("Invalid post ID.");
         }
     }
 
-    public void showSocialFeed(String username) {
+    public void showPostLikers(long postId) {
+        if (livePost(postId) != null) {
+            long[] likers = likes.likersOf(postId);
+            System.out.println("Liked by " + likers.length + " users:");
+            for (long id : likers) {
+                System.out.println(usersById.get(id).username);
+            }
+        } else {
+            System.out.println("Invalid post ID.");
+        }
+    }
+
+    public void showLikedPosts(String username) {
         User user = users.get(username);
         if (user != null) {
-            List<Post> feed = new ArrayList<>();
-            for (String friendUsername : user.getFriends()) {
-                User friend = users.get(friendUsername);
-                if (friend != null) {
-                    // Manually adding posts from friends to the feed
-                    for (int i = 0; i < friend.posts.size(); i++) {
-                        feed.add(friend.posts.get(i));
-                    }
+            System.out.println(username + "'s Liked Posts:");
+            for (long id : likes.likedBy(user.id)) {
+                OffHeapPostStore.PostView post = livePost(id);
+                if (post != null) {
+                    displayPost(post);
+                    System.out.println("-----------------------------");
                 }
             }
-            // Sorting the posts by timestamp (latest first)
-            feed.sort((p1, p2) -> p2.timestamp.compareTo(p1.timestamp));
+        } else {
+            System.out.println("User does not exist.");
+        }
+    }
+
+    public void commentOnPost(String username, long postId, String comment) {
+        User user = users.get(username);
+        OffHeapPostStore.PostView post = livePost(postId);
+        if (user != null && post != null) {
+            synchronized (comments) {
+                // Checked under the lock that deletePost takes after setting the flag
+                if (post.isDeleted()) {
+                    System.out.println("Invalid post ID.");
+                    return;
+                }
+                comments.put(postId, CommentList.add(comments.get(postId), comment));
+            }
+            events.publish(EventType.POST_COMMENTED, username, post.author(), postId, comment);
+            System.out.println(username + " commented: " + comment);
+        } else {
+            System.out.println("Invalid post ID.");
+        }
+    }
+
+    public List<String> commentsOf(long postId) {
+        CommentList list;
+        synchronized (comments) {
+            list = comments.get(postId);
+        }
+        return CommentList.toList(list);
+    }
+
+    private void displayPost(OffHeapPostStore.PostView post) {
+        post.display();
+        List<String> postComments = commentsOf(post.id());
+        System.out.println("Comments:");
+        if (postComments.isEmpty()) {
+            System.out.println("No comments yet.");
+        } else {
+            for (String comment : postComments) {
+                System.out.println("- " + comment);
+            }
+        }
+    }
+
+    // Post store rows of the user's friends' posts, latest first. Rows are appended in
+    // creation order, so sorting the rows sorts by time. Served from the cache when
+    // possible; the returned array is shared and must not be modified.
+    public long[] getSocialFeed(String username) {
+        QueryKey key = new QueryKey(QueryKey.FEED, username, null);
+        long[] cached = (long[]) cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        try (GraphView view = versions.snapshot()) {
+            List<long[]> parts = new ArrayList<>();
+            int total = 0;
+            for (String friendUsername : view.friendsOf(username)) {
+                long[] rows = view.postsOf(friendUsername);
+                parts.add(rows);
+                total += rows.length;
+            }
+            long[] feed = new long[total];
+            int at = 0;
+            for (long[] rows : parts) {
+                System.arraycopy(rows, 0, feed, at, rows.length);
+                at += rows.length;
+            }
+            Arrays.sort(feed);
+            for (int i = 0, j = feed.length - 1; i < j; i++, j--) {
+                long t = feed[i];
+                feed[i] = feed[j];
+                feed[j] = t;
+            }
+            cache.putIf(key, feed, stamp);
+            return feed;
+        }
+    }
+
+    public void showSocialFeed(String username) {
+        if (users.containsKey(username)) {
+            long[] feed = getSocialFeed(username);
             System.out.println(username + "'s Social Feed:");
-            if (feed.isEmpty()) {
+            if (feed.length == 0) {
                 System.out.println("No posts in the feed.");
             } else {
-                for (Post post : feed) {
-                    post.display();
+                OffHeapPostStore.PostView post = posts.view();
+                for (long row : feed) {
+                    displayPost(post.at(row));
                     System.out.println("-----------------------------");
                 }
             }
         }
     }
 
-    public void suggestFriends(String username) {
-        User user = users.get(username);
-        if (user != null) {
-            Map<String, Integer> mutualFriends = new HashMap<>();
-            for (String friendUsername : user.getFriends()) {
-                User friend = users.get(friendUsername);
-                if (friend != null) {
-                    for (String friendOfFriend : friend.getFriends()) {
-                        if (!friendOfFriend.equals(username) && !user.isFriend(friendOfFriend)) {
-                            mutualFriends.put(friendOfFriend, mutualFriends.getOrDefault(friendOfFriend, 0) + 1);
-                        }
+    // Friends of friends ranked by number of mutual friends
+    public List<Map.Entry<String, Integer>> getFriendSuggestions(String username) {
+        QueryKey key = new QueryKey(QueryKey.SUGGESTIONS, username, null);
+        @SuppressWarnings("unchecked")
+        List<Map.Entry<String, Integer>> cached = (List<Map.Entry<String, Integer>>) cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Integer> mutualFriends = new HashMap<>();
+        long stamp = cache.stamp();
+        try (GraphView view = versions.snapshot()) {
+            for (String friendUsername : view.friendsOf(username)) {
+                for (String friendOfFriend : view.friendsOf(friendUsername)) {
+                    if (!friendOfFriend.equals(username) && !view.isFriend(username, friendOfFriend)) {
+                        mutualFriends.put(friendOfFriend, mutualFriends.getOrDefault(friendOfFriend, 0) + 1);
                     }
                 }
             }
 
             List<Map.Entry<String, Integer>> suggestions = new ArrayList<>(mutualFriends.entrySet());
             suggestions.sort((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()));
+            suggestions = Collections.unmodifiableList(suggestions);
+            cache.putIf(key, suggestions, stamp);
+            return suggestions;
+        }
+    }
 
+    public void suggestFriends(String username) {
+        if (users.containsKey(username)) {
+            List<Map.Entry<String, Integer>> suggestions = getFriendSuggestions(username);
             System.out.println(username + "'s Friend Suggestions:");
             for (Map.Entry<String, Integer> entry : suggestions) {
                 System.out.println(entry.getKey() + " (Mutual friends: " + entry.getValue() + ")");
@@ -395,18 +709,53 @@ class SocialNetwork {
         }
     }
 
-    // Dijkstra's Shortest Path Implementation for User Connections (Friendships)
+    // Dijkstra's Shortest Path Implementation for User Connections (Friendships).
+    // Returns the number of steps, or Integer.MAX_VALUE if the users are not connected
+    // or either of them does not exist.
+    public int getShortestDistance(String startUser, String endUser) {
+        long stamp = cache.stamp();
+        try (GraphView view = versions.snapshot()) {
+            return getShortestDistance(view, stamp, startUser, endUser);
+        }
+    }
+
+    // 'stamp' must be read before the view is taken
+    private int getShortestDistance(GraphView view, long stamp, String startUser, String endUser) {
+        if (!view.contains(startUser) || !view.contains(endUser)) {
+            return Integer.MAX_VALUE;
+        }
+        QueryKey key = new QueryKey(QueryKey.PATH, startUser, endUser);
+        Integer cached = (Integer) cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int distance = shortestDistance(view, startUser, endUser);
+        cache.putIf(key, distance, stamp);
+        return distance;
+    }
+
     public void findShortestPath(String startUser, String endUser) {
-        User start = users.get(startUser);
-        User end = users.get(endUser);
+        // Validate against the same snapshot the search runs on; a user that is
+        // being added concurrently may already be in 'users' but not yet visible here
+        long stamp = cache.stamp();
+        try (GraphView view = versions.snapshot()) {
+            if (!view.contains(startUser) || !view.contains(endUser)) {
+                System.out.println("Invalid users.");
+                return;
+            }
 
-        if (start == null || end == null) {
-            System.out.println("Invalid users.");
-            return;
+            int shortestDistance = getShortestDistance(view, stamp, startUser, endUser);
+            if (shortestDistance == Integer.MAX_VALUE) {
+                System.out.println("No path found between " + startUser + " and " + endUser);
+            } else {
+                System.out.println("Shortest path between " + startUser + " and " + endUser + " is " + shortestDistance + " steps.");
+            }
         }
+    }
 
+    private int shortestDistance(GraphView view, String startUser, String endUser) {
         // Map each user to an index in the graph
-        List<String> allUsers = new ArrayList<>(users.keySet());
+        List<String> allUsers = view.usernames();
         int n = allUsers.size();
         int[] distances = new int[n];
         Arrays.fill(distances, Integer.MAX_VALUE);
@@ -418,7 +767,7 @@ class SocialNetwork {
         while (!pq.isEmpty()) {
             int u = pq.poll();
 
-            for (String friend : users.get(allUsers.get(u)).getFriends()) {
+            for (String friend : view.friendsOf(allUsers.get(u))) {
                 int v = allUsers.indexOf(friend);
                 int weight = 1; // Each friendship is a unit distance
 
@@ -429,13 +778,71 @@ class SocialNetwork {
             }
         }
 
-        int shortestDistance = distances[allUsers.indexOf(endUser)];
-        if (shortestDistance == Integer.MAX_VALUE) {
-            System.out.println("No path found between " + startUser + " and " + endUser);
+        return distances[allUsers.indexOf(endUser)];
+    }
+
+    // Drops cached results that a new friendship between the two users can change:
+    // both users' feeds, suggestions of both users and their friends, and every path
+    private void invalidateFriendship(String username, String friendUsername) {
+        cache.invalidate(new QueryKey(QueryKey.FEED, username, null));
+        cache.invalidate(new QueryKey(QueryKey.FEED, friendUsername, null));
+        for (String affected : new String[] {username, friendUsername}) {
+            cache.invalidate(new QueryKey(QueryKey.SUGGESTIONS, affected, null));
+            for (String neighbour : users.get(affected).getFriends()) {
+                cache.invalidate(new QueryKey(QueryKey.SUGGESTIONS, neighbour, null));
+            }
+        }
+        cache.invalidateIf(key -> key.kind == QueryKey.PATH);
+    }
+
+    // A new post by the user changes the feed of each of their friends
+    private void invalidatePost(String username) {
+        for (String friendUsername : users.get(username).getFriends()) {
+            cache.invalidate(new QueryKey(QueryKey.FEED, friendUsername, null));
+        }
+    }
+
+    public void showCacheStats() {
+        cache.printStats();
+        System.out.println("Snapshots: " + versions.activeReaders() + " open, "
+                + versions.reclaimedVersions() + " old versions reclaimed");
+    }
+
+    public void showNotifications(String username) {
+        if (users.containsKey(username)) {
+            notifications.flush();
+            List<Notification> inbox = notifications.notificationsOf(username);
+            System.out.println(username + "'s Notifications:");
+            if (inbox.isEmpty()) {
+                System.out.println("No notifications.");
+            } else {
+                for (Notification notification : inbox) {
+                    System.out.println("- " + notification.text() + " [Updated at: " + new Date(notification.updatedAt) + "]");
+                }
+            }
+            long dropped = notifications.droppedNotificationsOf(username);
+            if (dropped > 0) {
+                System.out.println("(" + dropped + " older notifications were dropped)");
+            }
         } else {
-            System.out.println("Shortest path between " + startUser + " and " + endUser + " is " + shortestDistance + " steps.");
+            System.out.println("User does not exist.");
         }
     }
+
+    public void showEventStats() {
+        events.printStats();
+        System.out.println("Events seen by metrics:");
+        eventCounts.print();
+    }
+
+    // Whole-network analytics over a frozen snapshot of the friendship graph
+    public void showNetworkAnalytics() {
+        GraphSnapshot snapshot;
+        try (GraphView view = versions.snapshot()) {
+            snapshot = GraphSnapshot.of(view);
+        }
+        new GraphAnalytics(snapshot).printReport(5);
+    }
 }
 
 // Main class for running the social network program
@@ -454,7 +861,14 @@ public class Main {
             System.out.println("6. Show Social Feed");
             System.out.println("7. Suggest Friends");
             System.out.println("8. Find Shortest Path");
-            System.out.println("9. Exit");
+            System.out.println("9. Network Analytics");
+            System.out.println("10. Cache Statistics");
+            System.out.println("11. Show Post Likers");
+            System.out.println("12. Show Liked Posts");
+            System.out.println("13. Delete Post");
+            System.out.println("14. Event Stream Statistics");
+            System.out.println("15. Show Notifications");
+            System.out.println("16. Exit");
             System.out.print("Enter your choice: ");
             int choice = scanner.nextInt();
             scanner.nextLine();  // Consume the newline character
@@ -484,20 +898,20 @@ public class Main {
                 case 4:
                     System.out.print("Enter username: ");
                     String user3 = scanner.nextLine();
-                    System.out.print("Enter post index to like: ");
-                    int postIndexLike = scanner.nextInt();
+                    System.out.print("Enter post ID to like: ");
+                    long postIdLike = scanner.nextLong();
                     scanner.nextLine(); // Consume newline
-                    socialNetwork.likePost(user3, postIndexLike);
+                    socialNetwork.likePost(user3, postIdLike);
                     break;
                 case 5:
                     System.out.print("Enter username: ");
                     String user4 = scanner.nextLine();
-                    System.out.print("Enter post index to comment on: ");
-                    int postIndexComment = scanner.nextInt();
+                    System.out.print("Enter post ID to comment on: ");
+                    long postIdComment = scanner.nextLong();
                     scanner.nextLine(); // Consume newline
                     System.out.print("Enter comment: ");
                     String comment = scanner.nextLine();
-                    socialNetwork.commentOnPost(user4, postIndexComment, comment);
+                    socialNetwork.commentOnPost(user4, postIdComment, comment);
                     break;
                 case 6:
                     System.out.print("Enter username to view feed: ");
@@ -517,6 +931,39 @@ public class Main {
                     socialNetwork.findShortestPath(startUser, endUser);
                     break;
                 case 9:
+                    socialNetwork.showNetworkAnalytics();
+                    break;
+                case 10:
+                    socialNetwork.showCacheStats();
+                    break;
+                case 11:
+                    System.out.print("Enter post ID: ");
+                    long postIdLikers = scanner.nextLong();
+                    scanner.nextLine(); // Consume newline
+                    socialNetwork.showPostLikers(postIdLikers);
+                    break;
+                case 12:
+                    System.out.print("Enter username: ");
+                    String user7 = scanner.nextLine();
+                    socialNetwork.showLikedPosts(user7);
+                    break;
+                case 13:
+                    System.out.print("Enter username: ");
+                    String user8 = scanner.nextLine();
+                    System.out.print("Enter post ID to delete: ");
+                    long postIdDelete = scanner.nextLong();
+                    scanner.nextLine(); // Consume newline
+                    socialNetwork.deletePost(user8, postIdDelete);
+                    break;
+                case 14:
+                    socialNetwork.showEventStats();
+                    break;
+                case 15:
+                    System.out.print("Enter username: ");
+                    String user9 = scanner.nextLine();
+                    socialNetwork.showNotifications(user9);
+                    break;
+                case 16:
                     System.out.println("Exiting...");
                     scanner.close();
                     return;
@@ -0,0 +1,359 @@
+package Socialsphere;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// One inbox entry, possibly standing for many events of the same kind:
+// "alice and 40 others liked your post" is a single Notification with 41 actors.
+// Actors are counted once each, however many events they cause. The first
+// MAX_TRACKED_ACTORS are remembered by name; past that only a count is kept, so a
+// repeat actor beyond the limit may be counted again. The limit also caps memory:
+// one notification holds at most 32 names (about 2 KB of set entries), whatever the
+// number of events behind it.
+class Notification {
+    static final int MAX_TRACKED_ACTORS = 32;
+
+    final EventType type;
+    final long postId;
+    private final LinkedHashSet<String> actors;
+    private int untracked;
+    long updatedAt;
+
+    Notification(EventType type, long postId) {
+        this.type = type;
+        this.postId = postId;
+        this.actors = new LinkedHashSet<>();
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    Notification(Notification other) {
+        this.type = other.type;
+        this.postId = other.postId;
+        this.actors = new LinkedHashSet<>(other.actors);
+        this.untracked = other.untracked;
+        this.updatedAt = other.updatedAt;
+    }
+
+    boolean sameSubject(Notification other) {
+        return type == other.type && postId == other.postId;
+    }
+
+    boolean sameSubject(EventType type, long postId) {
+        return this.type == type && this.postId == postId;
+    }
+
+    // Number of distinct actors
+    int count() {
+        return actors.size() + untracked;
+    }
+
+    void addActor(String actor) {
+        if (!actors.contains(actor)) {
+            if (actors.size() < MAX_TRACKED_ACTORS) {
+                actors.add(actor);
+            } else {
+                untracked++;
+            }
+        }
+        updatedAt = System.currentTimeMillis();
+    }
+
+    // Folds the actors of a newer notification about the same thing into this one
+    void merge(Notification newer) {
+        for (String actor : newer.actors) {
+            addActor(actor);
+        }
+        untracked += newer.untracked;
+        updatedAt = newer.updatedAt;
+    }
+
+    boolean removeActor(String actor) {
+        return actors.remove(actor);
+    }
+
+    boolean removeUntracked() {
+        if (untracked == 0) {
+            return false;
+        }
+        untracked--;
+        return true;
+    }
+
+    String text() {
+        int count = count();
+        String first = actors.isEmpty() ? "Someone" : actors.iterator().next();
+        String who = count == 1 ? first : first + " and " + (count - 1) + (count == 2 ? " other" : " others");
+        switch (type) {
+            case POST_LIKED:
+                return who + " liked your post #" + postId;
+            case POST_COMMENTED:
+                return who + " commented on your post #" + postId;
+            case FRIEND_ADDED:
+                return who + " added you as a friend";
+            default:
+                return who + " " + type;
+        }
+    }
+}
+
+// Fixed-size ring of notifications, oldest to newest; when full the oldest entry
+// is overwritten. An entry that gains actors moves to the newest end.
+class Inbox {
+    private final Notification[] entries;
+    private int start;
+    private int size;
+    private long dropped;
+
+    Inbox(int capacity) {
+        this.entries = new Notification[capacity];
+    }
+
+    synchronized void deliver(Notification notification) {
+        // Merge into an entry about the same thing if one is still in the inbox
+        for (int i = 0; i < size; i++) {
+            Notification existing = entries[(start + i) % entries.length];
+            if (existing.sameSubject(notification)) {
+                existing.merge(notification);
+                removeAt(i);
+                append(existing);
+                return;
+            }
+        }
+        if (size == entries.length) {
+            start = (start + 1) % entries.length;
+            size--;
+            dropped++;
+        }
+        append(notification);
+    }
+
+    // Takes an actor back out of a delivered notification, dropping the entry once
+    // nobody is left in it. Returns false if the inbox has no such actor.
+    synchronized boolean retract(EventType type, long postId, String actor, boolean untracked) {
+        for (int i = 0; i < size; i++) {
+            Notification existing = entries[(start + i) % entries.length];
+            if (existing.sameSubject(type, postId)) {
+                boolean removed = untracked ? existing.removeUntracked() : existing.removeActor(actor);
+                if (existing.count() == 0) {
+                    removeAt(i);
+                }
+                return removed;
+            }
+        }
+        return false;
+    }
+
+    private void append(Notification notification) {
+        entries[(start + size) % entries.length] = notification;
+        size++;
+    }
+
+    // Closes the gap left by the i-th oldest entry
+    private void removeAt(int i) {
+        for (int j = i; j < size - 1; j++) {
+            entries[(start + j) % entries.length] = entries[(start + j + 1) % entries.length];
+        }
+        entries[(start + size - 1) % entries.length] = null;
+        size--;
+    }
+
+    // Newest first. Returns copies, so callers never see an entry change under them.
+    synchronized List<Notification> list() {
+        List<Notification> result = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            result.add(new Notification(entries[(start + i) % entries.length]));
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Entries overwritten because the ring was full
+    synchronized long dropped() {
+        return dropped;
+    }
+}
+
+// Turns change events into per-user notifications. Events are first coalesced in
+// memory by (recipient, type, post); a scheduler delivers the coalesced entries to
+// the inboxes in batches. The pending table is bounded: if a burst fills it, it is
+// delivered early instead of growing.
+class NotificationCenter implements EventHandler {
+    private static final class Key {
+        final String recipient;
+        final EventType type;
+        final long postId;
+
+        Key(String recipient, EventType type, long postId) {
+            this.recipient = recipient;
+            this.type = type;
+            this.postId = postId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return type == k.type && postId == k.postId && recipient.equals(k.recipient);
+        }
+
+        @Override
+        public int hashCode() {
+            return (recipient.hashCode() * 31 + type.hashCode()) * 31 + Long.hashCode(postId);
+        }
+    }
+
+    private final int inboxCapacity;
+    private final int maxPending;
+    private final Map<String, Inbox> inboxes = new ConcurrentHashMap<>();
+    private Map<Key, Notification> pending = new HashMap<>();  // guarded by this
+    // Held across a whole flush, so a retraction never misses a batch in transit
+    private final Object deliveryLock = new Object();
+    private final ScheduledExecutorService scheduler;
+    private long eventsSeen;
+    private long deliveries;
+    private int peakPending;
+
+    public NotificationCenter(int inboxCapacity, int maxPending, long flushIntervalMillis) {
+        this.inboxCapacity = inboxCapacity;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-delivery");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+        switch (event.type) {
+            case POST_LIKED:
+            case POST_COMMENTED:
+            case FRIEND_ADDED:
+                // Nobody is notified about their own actions
+                if (event.target != null && !event.target.equals(event.actor)) {
+                    coalesce(new Key(event.target, event.type, event.postId), event.actor);
+                }
+                break;
+            case POST_UNLIKED:
+                if (event.target != null && !event.target.equals(event.actor)) {
+                    retract(new Key(event.target, EventType.POST_LIKED, event.postId), event.actor);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void coalesce(Key key, String actor) {
+        boolean full;
+        synchronized (this) {
+            eventsSeen++;
+            Notification notification = pending.get(key);
+            if (notification == null) {
+                notification = new Notification(key.type, key.postId);
+                pending.put(key, notification);
+            }
+            notification.addActor(actor);
+            peakPending = Math.max(peakPending, pending.size());
+            full = pending.size() >= maxPending;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    // Takes back a like: from the pending entry if it has not been delivered yet,
+    // otherwise from the inbox. Actors past the tracking limit are taken off the count.
+    private void retract(Key key, String actor) {
+        synchronized (deliveryLock) {
+            Notification notification;
+            synchronized (this) {
+                eventsSeen++;
+                notification = pending.get(key);
+                if (notification != null && notification.removeActor(actor)) {
+                    if (notification.count() == 0) {
+                        pending.remove(key);
+                    }
+                    return;
+                }
+            }
+            Inbox inbox = inboxes.get(key.recipient);
+            if (inbox != null && inbox.retract(key.type, key.postId, actor, false)) {
+                return;
+            }
+            synchronized (this) {
+                notification = pending.get(key);
+                if (notification != null && notification.removeUntracked()) {
+                    if (notification.count() == 0) {
+                        pending.remove(key);
+                    }
+                    return;
+                }
+            }
+            if (inbox != null) {
+                inbox.retract(key.type, key.postId, actor, true);
+            }
+        }
+    }
+
+    // Delivers everything coalesced so far to the inboxes
+    public void flush() {
+        synchronized (deliveryLock) {
+            Map<Key, Notification> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                deliveries += batch.size();
+            }
+            for (Map.Entry<Key, Notification> entry : batch.entrySet()) {
+                inboxes.computeIfAbsent(entry.getKey().recipient, k -> new Inbox(inboxCapacity)).deliver(entry.getValue());
+            }
+        }
+    }
+
+    public List<Notification> notificationsOf(String username) {
+        Inbox inbox = inboxes.get(username);
+        return inbox == null ? Collections.emptyList() : inbox.list();
+    }
+
+    public long droppedNotificationsOf(String username) {
+        Inbox inbox = inboxes.get(username);
+        return inbox == null ? 0 : inbox.dropped();
+    }
+
+    public synchronized long eventsSeen() {
+        return eventsSeen;
+    }
+
+    public synchronized long deliveries() {
+        return deliveries;
+    }
+
+    public synchronized int peakPending() {
+        return peakPending;
+    }
+
+    public long inboxEntries() {
+        long total = 0;
+        for (Inbox inbox : inboxes.values()) {
+            total += inbox.size();
+        }
+        return total;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+package Socialsphere;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Bidirectional String <-> int dictionary, so repeated strings are stored once.
+// encode() is called by one writer at a time; decode() may run concurrently with it
+// for any code the reader learned about through a happens-before edge (the store's
+// volatile size), because a grown array is only published after the copy.
+class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[16];
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            String[] current = values;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[code] = value;
+            values = current;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
+
+// Columnar post storage outside the Java heap. Rows live in fixed-size chunks of
+// direct memory, each chunk holding one column after the other:
+//   post ID (long) | author code (int) | timestamp millis (long) | likes (int) | flags (int)
+//   | content ref (long) | content length (int)
+// Rows are appended in increasing post ID order, so a post is found by binary search
+// over the ID column without any on-heap index. Rows are never reused: a deleted post
+// keeps its row with the DELETED flag set, so a reader holding an old row number
+// still reads consistent data.
+// Content is UTF-8 in a separate chunked arena; a content ref is chunk << 32 | offset.
+// Arena chunks start small and double up to ARENA_MAX_BYTES, so a small store does
+// not reserve the full maximum up front.
+// Author names are dictionary-encoded, so the heap only holds one String per author.
+//
+// Appends are serialized. Readers may run concurrently with them: a row is written
+// completely before the volatile size is bumped past it, and readers only look at
+// rows below size.
+// Likes and flags are updated in place with atomic operations.
+class OffHeapPostStore {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int ARENA_MIN_BYTES = 64 << 10;
+    private static final int ARENA_MAX_BYTES = 64 << 20;
+
+    static final int DELETED = 1;
+
+    private static final int ID_BASE = 0;
+    private static final int AUTHOR_BASE = ID_BASE + 8 * CHUNK_ROWS;
+    private static final int TIMESTAMP_BASE = AUTHOR_BASE + 4 * CHUNK_ROWS;
+    private static final int LIKES_BASE = TIMESTAMP_BASE + 8 * CHUNK_ROWS;
+    private static final int FLAGS_BASE = LIKES_BASE + 4 * CHUNK_ROWS;
+    private static final int CONTENT_REF_BASE = FLAGS_BASE + 4 * CHUNK_ROWS;
+    private static final int CONTENT_LENGTH_BASE = CONTENT_REF_BASE + 8 * CHUNK_ROWS;
+    private static final int CHUNK_BYTES = CONTENT_LENGTH_BASE + 4 * CHUNK_ROWS;
+
+    // Atomic int access to the likes and flags columns; needs native byte order and aligned offsets
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    // Copy-on-write, so readers can look chunks up while an append adds one
+    private final List<ByteBuffer> chunks = new CopyOnWriteArrayList<>();
+    private final List<ByteBuffer> arena = new CopyOnWriteArrayList<>();
+    private final StringDictionary authors = new StringDictionary();
+    private int arenaUsed;  // bytes used in the last arena chunk; guarded by this
+    private long arenaBytes;  // guarded by this
+    private long lastId = Long.MIN_VALUE;  // guarded by this
+    private volatile long size;
+
+    // Appends a post and returns its row number. IDs must be strictly increasing.
+    public synchronized long append(long id, String author, long timestampMillis, int likes, String content) {
+        if (id <= lastId) {
+            throw new IllegalArgumentException("Post IDs must be appended in increasing order");
+        }
+        long row = size;
+        int slot = (int) (row & CHUNK_MASK);
+        if (slot == 0) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder()));
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        chunk.putLong(ID_BASE + 8 * slot, id);
+        chunk.putInt(AUTHOR_BASE + 4 * slot, authors.encode(author));
+        chunk.putLong(TIMESTAMP_BASE + 8 * slot, timestampMillis);
+        chunk.putInt(LIKES_BASE + 4 * slot, likes);
+        chunk.putInt(FLAGS_BASE + 4 * slot, 0);
+        chunk.putLong(CONTENT_REF_BASE + 8 * slot, writeContent(bytes));
+        chunk.putInt(CONTENT_LENGTH_BASE + 4 * slot, bytes.length);
+        lastId = id;
+        // Publishes the row to readers
+        size = row + 1;
+        return row;
+    }
+
+    private long writeContent(byte[] bytes) {
+        if (bytes.length > ARENA_MAX_BYTES) {
+            throw new IllegalArgumentException("Post content too large");
+        }
+        ByteBuffer current = arena.isEmpty() ? null : arena.get(arena.size() - 1);
+        if (current == null || current.capacity() - arenaUsed < bytes.length) {
+            int capacity = current == null ? ARENA_MIN_BYTES : Math.min(ARENA_MAX_BYTES, current.capacity() * 2);
+            current = ByteBuffer.allocateDirect(Math.max(capacity, bytes.length));
+            arena.add(current);
+            arenaBytes += current.capacity();
+            arenaUsed = 0;
+        }
+        int offset = arenaUsed;
+        current.put(offset, bytes);
+        arenaUsed += bytes.length;
+        return ((long) (arena.size() - 1) << 32) | offset;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // Bytes of direct memory reserved by this store
+    public synchronized long offHeapBytes() {
+        return (long) chunks.size() * CHUNK_BYTES + arenaBytes;
+    }
+
+    // A reusable cursor; call view() once per thread and move it with at()
+    public PostView view() {
+        return new PostView(this);
+    }
+
+    // Row holding the post, or -1 if no post with that ID was ever appended
+    public long rowOf(long id) {
+        long low = 0, high = size - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long midId = chunk(mid).getLong(ID_BASE + 8 * (int) (mid & CHUNK_MASK));
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    ByteBuffer chunk(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row out of bounds");
+        }
+        return chunks.get((int) (row >>> CHUNK_SHIFT));
+    }
+
+    // Flyweight over one row of the store. No per-post objects are created;
+    // fields are decoded from direct memory on each access. A view is a cursor and
+    // must not be shared between threads; the rows it reads may be.
+    static class PostView {
+        private final OffHeapPostStore store;
+        private ByteBuffer chunk;
+        private int slot;
+        private long row = -1;
+
+        PostView(OffHeapPostStore store) {
+            this.store = store;
+        }
+
+        public PostView at(long row) {
+            this.chunk = store.chunk(row);
+            this.slot = (int) (row & CHUNK_MASK);
+            this.row = row;
+            return this;
+        }
+
+        public long row() {
+            return row;
+        }
+
+        public long id() {
+            return chunk.getLong(ID_BASE + 8 * slot);
+        }
+
+        public String author() {
+            return store.authors.decode(chunk.getInt(AUTHOR_BASE + 4 * slot));
+        }
+
+        public long timestamp() {
+            return chunk.getLong(TIMESTAMP_BASE + 8 * slot);
+        }
+
+        public int likes() {
+            return (int) INTS.getVolatile(chunk, LIKES_BASE + 4 * slot);
+        }
+
+        public void addLike() {
+            INTS.getAndAdd(chunk, LIKES_BASE + 4 * slot, 1);
+        }
+
+        public void removeLike() {
+            INTS.getAndAdd(chunk, LIKES_BASE + 4 * slot, -1);
+        }
+
+        public boolean isDeleted() {
+            return ((int) INTS.getVolatile(chunk, FLAGS_BASE + 4 * slot) & DELETED) != 0;
+        }
+
+        // Marks the post deleted; returns false if it already was
+        public boolean delete() {
+            return ((int) INTS.getAndBitwiseOr(chunk, FLAGS_BASE + 4 * slot, DELETED) & DELETED) == 0;
+        }
+
+        public String content() {
+            long ref = chunk.getLong(CONTENT_REF_BASE + 8 * slot);
+            int length = chunk.getInt(CONTENT_LENGTH_BASE + 4 * slot);
+            byte[] bytes = new byte[length];
+            store.arena.get((int) (ref >>> 32)).get((int) ref, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public void display() {
+            System.out.println("#" + id() + " " + content() + " [Posted at: " + new Date(timestamp()) + "] Likes: " + likes());
+        }
+    }
+}
\ No newline at end of file
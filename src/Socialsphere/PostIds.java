@@ -0,0 +1,147 @@
+package Socialsphere;
+
+// Snowflake-style 64-bit post IDs: 41 bits of milliseconds since 2024-01-01,
+// 10 bits of node ID and a 12-bit per-millisecond sequence. IDs from one node are
+// strictly increasing, and IDs from different nodes never collide.
+class PostIdGenerator {
+    private static final long EPOCH = 1704067200000L;  // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public PostIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId() {
+        // Never step back in time, even if the wall clock does
+        long millis = Math.max(System.currentTimeMillis() - EPOCH, lastMillis);
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence exhausted for this millisecond; wait for the next one
+                while (millis <= lastMillis) {
+                    Thread.onSpinWait();
+                    millis = System.currentTimeMillis() - EPOCH;
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    // Node that generated the ID
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
+
+// Open-addressing map from primitive long keys (post or user IDs) to objects, with
+// linear probing and backward-shift deletion. Lookups hash straight to the slot and
+// never box the key. Not thread-safe; callers guard it.
+class LongMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongMap() {
+        keys = new long[16];
+        values = new Object[16];
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+        size++;
+    }
+
+    private void insert(long key, Object value) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removed = (V) values[slot];
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!stays) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+}
\ No newline at end of file
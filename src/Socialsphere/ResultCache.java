@@ -0,0 +1,312 @@
+package Socialsphere;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Approximate access frequencies in a count-min sketch of small saturating counters.
+// All counters are halved once enough increments have been seen, so old popularity
+// fades out.
+class FrequencySketch {
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, expectedEntries) * 2 - 1);
+        this.table = new byte[ROWS][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * (0x9E3779B9 + 2 * row + 1);
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    void increment(Object key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int row = 0; row < ROWS; row++) {
+            int i = index(hash, row);
+            if (table[row][i] < MAX_COUNT) {
+                table[row][i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            min = Math.min(min, table[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    private void reset() {
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions /= 2;
+    }
+}
+
+// Weight-bounded cache with W-TinyLFU admission. New entries land in a small LRU
+// window; entries leaving the window only enter the main segmented LRU if the
+// sketch says they are used more often than the main segment's eviction victim.
+// The main region is split into probation and protected segments so one-off
+// scans cannot push out entries that are hit repeatedly.
+class ResultCache<K, V> {
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+    private static final int STAMP_STRIPES = 1024;
+    private static final int MAX_RECENT_PREDICATES = 16;
+
+    private class Node {
+        final K key;
+        V value;
+        int weight;
+        int queue;
+        Node prev, next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    // Circular doubly linked list with a sentinel; head.next is least recently used
+    private class Queue {
+        final Node head = new Node(null, null, 0);
+        long weight;
+
+        Queue() {
+            head.prev = head.next = head;
+        }
+
+        void addLast(Node node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+            weight -= node.weight;
+        }
+
+        Node first() {
+            return head.next == head ? null : head.next;
+        }
+    }
+
+    private final Map<K, Node> data = new HashMap<>();
+    private final List<Queue> queues = Arrays.asList(new Queue(), new Queue(), new Queue());
+    private final FrequencySketch sketch;
+    private final ToIntFunction<V> weigher;
+    private final long windowMax;
+    private final long protectedMax;
+    private final long maximumWeight;
+
+    private long hits, misses, evictions, invalidations, rejections;
+
+    // Invalidation clock. Each invalidation ticks it and stamps the invalidated keys'
+    // stripes with the new time, so a result computed since a stamp() is stale exactly
+    // when its key's stripe (or a later predicate) has been stamped after it. Keys that
+    // share a stripe can drop each other's results, never keep a stale one.
+    private long clock;
+    private final long[] stamps = new long[STAMP_STRIPES];
+    // Recent invalidateIf calls, which may match keys that are not cached yet
+    private final ArrayDeque<Map.Entry<Long, Predicate<K>>> recentPredicates = new ArrayDeque<>();
+    private long forgottenPredicates;
+
+    public ResultCache(long maximumWeight, ToIntFunction<V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.windowMax = Math.max(1, maximumWeight / 100);
+        this.protectedMax = (maximumWeight - windowMax) * 4 / 5;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE / 2, maximumWeight));
+    }
+
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onHit(node);
+        return node.value;
+    }
+
+    private void onHit(Node node) {
+        Queue queue = queues.get(node.queue);
+        queue.remove(node);
+        if (node.queue == PROBATION) {
+            // Promote, demoting protected entries back to probation if it overflows
+            node.queue = PROTECTED;
+            queues.get(PROTECTED).addLast(node);
+            while (queues.get(PROTECTED).weight > protectedMax) {
+                Node demoted = queues.get(PROTECTED).first();
+                queues.get(PROTECTED).remove(demoted);
+                demoted.queue = PROBATION;
+                queues.get(PROBATION).addLast(demoted);
+            }
+        } else {
+            queue.addLast(node);
+        }
+    }
+
+    public synchronized void put(K key, V value) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        Node existing = data.remove(key);
+        if (existing != null) {
+            queues.get(existing.queue).remove(existing);
+        }
+        if (weight > maximumWeight) {
+            rejections++;
+            return;
+        }
+        Node node = new Node(key, value, weight);
+        node.queue = WINDOW;
+        data.put(key, node);
+        queues.get(WINDOW).addLast(node);
+        evict();
+    }
+
+    // Read before computing a value, then pass to putIf
+    public synchronized long stamp() {
+        return clock;
+    }
+
+    // Stores the value only if no invalidation of its key has happened since 'stamp'.
+    // Callers use this to drop results computed from data that an invalidation
+    // has overtaken in the meantime.
+    public synchronized void putIf(K key, V value, long stamp) {
+        if (stamps[stripeOf(key)] > stamp || forgottenPredicates > stamp) {
+            return;
+        }
+        for (Map.Entry<Long, Predicate<K>> recent : recentPredicates) {
+            if (recent.getKey() > stamp && recent.getValue().test(key)) {
+                return;
+            }
+        }
+        put(key, value);
+    }
+
+    private static int stripeOf(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private void evict() {
+        Queue window = queues.get(WINDOW);
+        Queue probation = queues.get(PROBATION);
+        while (window.weight > windowMax) {
+            Node candidate = window.first();
+            window.remove(candidate);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+        }
+
+        // Main overflowed: duel the newest probation entry against the oldest one
+        while (totalWeight() > maximumWeight) {
+            Node victim = probation.first();
+            Node candidate = probation.head.prev;
+            if (victim == null) {
+                victim = queues.get(PROTECTED).first();
+                candidate = victim;
+            }
+            Node loser = victim;
+            if (candidate != victim && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                loser = candidate;
+                rejections++;
+            }
+            queues.get(loser.queue).remove(loser);
+            data.remove(loser.key);
+            evictions++;
+        }
+    }
+
+    private long totalWeight() {
+        return queues.get(WINDOW).weight + queues.get(PROBATION).weight + queues.get(PROTECTED).weight;
+    }
+
+    public synchronized void invalidate(K key) {
+        stamps[stripeOf(key)] = ++clock;
+        Node node = data.remove(key);
+        if (node != null) {
+            queues.get(node.queue).remove(node);
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        recentPredicates.addLast(Map.entry(++clock, predicate));
+        if (recentPredicates.size() > MAX_RECENT_PREDICATES) {
+            // Results older than a forgotten predicate are dropped unchecked
+            forgottenPredicates = recentPredicates.removeFirst().getKey();
+        }
+        Iterator<Node> it = data.values().iterator();
+        while (it.hasNext()) {
+            Node node = it.next();
+            if (predicate.test(node.key)) {
+                it.remove();
+                queues.get(node.queue).remove(node);
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    public synchronized long weightedSize() {
+        return totalWeight();
+    }
+
+    public synchronized double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    public synchronized void printStats() {
+        System.out.printf("Cache: %d entries, weight %d/%d%n", data.size(), totalWeight(), maximumWeight);
+        System.out.printf("Hits: %d, Misses: %d, Hit rate: %.1f%%%n", hits, misses, 100 * hitRate());
+        System.out.println("Evictions: " + evictions + ", Rejected: " + rejections + ", Invalidations: " + invalidations);
+    }
+}
\ No newline at end of file
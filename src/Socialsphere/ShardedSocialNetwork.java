@@ -0,0 +1,722 @@
+package Socialsphere;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reference to a friend together with the shard that owns them, so requests about
+// the friend can be routed without hashing the name again
+class FriendRef {
+    final String username;
+    final int shardId;
+
+    FriendRef(String username, int shardId) {
+        this.username = username;
+        this.shardId = shardId;
+    }
+}
+
+// A user reached by a distributed BFS, with the user it was reached from
+class PathHop {
+    final FriendRef user;
+    final String parent;
+
+    PathHop(FriendRef user, String parent) {
+        this.user = user;
+        this.parent = parent;
+    }
+}
+
+// Per-query counters for cross-shard traffic
+class QueryStats {
+    final String query;
+    int shardsContacted;
+    int messages;
+    int remoteEdges;
+    int timeouts;
+
+    QueryStats(String query) {
+        this.query = query;
+    }
+
+    @Override
+    public String toString() {
+        return query + ": shards=" + shardsContacted + " messages=" + messages
+                + " remoteEdges=" + remoteEdges + " timeouts=" + timeouts;
+    }
+}
+
+// A single partition of the network. Each shard owns a subset of the users and
+// runs on its own thread, so every call into it behaves like a message to a node.
+// Friends on the same shard live in the user's AVL tree; friends on other shards
+// are kept as references carrying the owning shard.
+class Shard {
+    final int id;
+    private final Map<String, User> users;
+    private final Map<String, List<FriendRef>> remoteFriends;
+    private final LongMap<Post> posts;
+    private final Map<Long, Set<String>> likers;
+    // Visited local users of each running BFS, with the user each was reached from
+    private final Map<Long, Map<String, String>> searches;
+    private final PostIdGenerator postIds;
+    private final ExecutorService node;
+
+    Shard(int id) {
+        this.id = id;
+        this.users = new HashMap<>();
+        this.remoteFriends = new HashMap<>();
+        this.posts = new LongMap<>();
+        this.likers = new HashMap<>();
+        this.searches = new HashMap<>();
+        this.postIds = new PostIdGenerator(id);
+        this.node = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "shard-" + id);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    <T> Future<T> call(Callable<T> request) {
+        return node.submit(request);
+    }
+
+    // The methods below are only ever run on the shard's own thread via call()
+
+    boolean addUser(String username, String bio) {
+        if (users.containsKey(username)) {
+            return false;
+        }
+        users.put(username, new User(username, bio));
+        return true;
+    }
+
+    boolean hasUser(String username) {
+        return users.containsKey(username);
+    }
+
+    boolean isFriend(String username, String friendUsername) {
+        User user = users.get(username);
+        if (user == null) {
+            return false;
+        }
+        if (user.isFriend(friendUsername)) {
+            return true;
+        }
+        for (FriendRef ref : remoteFriends.getOrDefault(username, Collections.emptyList())) {
+            if (ref.username.equals(friendUsername)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Stores one half of a friendship. Returns false, storing nothing, if the user is
+    // missing or already has the friend, so repeating the message is harmless.
+    boolean addFriend(String username, String friendUsername, int friendShard) {
+        if (!users.containsKey(username) || isFriend(username, friendUsername)) {
+            return false;
+        }
+        if (friendShard == id) {
+            users.get(username).addFriend(friendUsername);
+        } else {
+            remoteFriends.computeIfAbsent(username, k -> new ArrayList<>()).add(new FriendRef(friendUsername, friendShard));
+        }
+        return true;
+    }
+
+    // Undoes addFriend; a no-op if the friendship was never stored
+    void removeFriend(String username, String friendUsername) {
+        List<FriendRef> refs = remoteFriends.get(username);
+        if (refs != null) {
+            refs.removeIf(ref -> ref.username.equals(friendUsername));
+        }
+        User user = users.get(username);
+        if (user != null && user.isFriend(friendUsername)) {
+            // AVLTree has no delete; rollbacks are rare, so rebuild it without the friend
+            AVLTree friends = new AVLTree();
+            for (String friend : user.getFriends()) {
+                if (!friend.equals(friendUsername)) {
+                    friends.insert(friend);
+                }
+            }
+            user.friends = friends;
+        }
+    }
+
+    Post createPost(String username, String content) {
+        User user = users.get(username);
+        if (user == null) {
+            return null;
+        }
+        Post post = new Post(postIds.nextId(), username, content);
+        user.addPost(post);
+        posts.put(post.id, post);
+        return post;
+    }
+
+    // Likes the post, or takes the like back: 1 if liked, -1 if unliked, 0 if there is no such post
+    int toggleLike(String username, long postId) {
+        Post post = posts.get(postId);
+        if (post == null) {
+            return 0;
+        }
+        Set<String> postLikers = likers.computeIfAbsent(postId, k -> new HashSet<>());
+        if (postLikers.add(username)) {
+            post.addLike();
+            return 1;
+        }
+        postLikers.remove(username);
+        post.removeLike();
+        return -1;
+    }
+
+    List<String> likersOf(long postId) {
+        return new ArrayList<>(likers.getOrDefault(postId, Collections.emptySet()));
+    }
+
+    boolean commentOnPost(long postId, String comment) {
+        Post post = posts.get(postId);
+        if (post == null) {
+            return false;
+        }
+        post.addComment(comment);
+        return true;
+    }
+
+    // Friends of one local user, local and remote alike
+    List<FriendRef> friendRefsOf(String username) {
+        User user = users.get(username);
+        if (user == null) {
+            return Collections.emptyList();
+        }
+        List<FriendRef> refs = new ArrayList<>();
+        for (String friend : user.getFriends()) {
+            refs.add(new FriendRef(friend, id));
+        }
+        refs.addAll(remoteFriends.getOrDefault(username, Collections.emptyList()));
+        return refs;
+    }
+
+    // One BFS level on this shard. The first offer of a local user marks it visited
+    // with its parent; newly visited users are expanded, and only neighbours not
+    // already visited here are returned. Remote neighbours are filtered by their own
+    // shard when they are offered there on the next level.
+    List<PathHop> expand(long search, List<PathHop> offered) {
+        Map<String, String> visited = searches.computeIfAbsent(search, k -> new HashMap<>());
+        List<PathHop> discovered = new ArrayList<>();
+        for (PathHop hop : offered) {
+            String username = hop.user.username;
+            if (!users.containsKey(username) || visited.containsKey(username)) {
+                continue;
+            }
+            visited.put(username, hop.parent);
+            for (FriendRef friend : friendRefsOf(username)) {
+                if (friend.shardId != id || !visited.containsKey(friend.username)) {
+                    discovered.add(new PathHop(friend, username));
+                }
+            }
+        }
+        return discovered;
+    }
+
+    // Parent of a user visited by the search; empty for the start user
+    String parentOf(long search, String username) {
+        String parent = searches.getOrDefault(search, Collections.emptyMap()).get(username);
+        return parent == null ? "" : parent;
+    }
+
+    void endSearch(long search) {
+        searches.remove(search);
+    }
+
+    int remoteRefCount() {
+        int count = 0;
+        for (List<FriendRef> refs : remoteFriends.values()) {
+            count += refs.size();
+        }
+        return count;
+    }
+
+    // Posts of the given local users
+    List<Post> postsOf(List<String> usernames) {
+        List<Post> result = new ArrayList<>();
+        for (String username : usernames) {
+            User user = users.get(username);
+            if (user != null) {
+                for (int i = 0; i < user.posts.size(); i++) {
+                    result.add(user.posts.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Friend references of the given local users, keyed by username
+    Map<String, List<FriendRef>> friendRefsOf(List<String> usernames) {
+        Map<String, List<FriendRef>> result = new HashMap<>();
+        for (String username : usernames) {
+            if (users.containsKey(username)) {
+                result.put(username, friendRefsOf(username));
+            }
+        }
+        return result;
+    }
+
+    int userCount() {
+        return users.size();
+    }
+
+    void shutdown() {
+        node.shutdownNow();
+    }
+}
+
+// Maps usernames to shards by hashing, and posts to the shard whose node ID they carry
+class ShardRouter {
+    private final int shardCount;
+
+    ShardRouter(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    int shardOf(String username) {
+        return Math.floorMod(username.hashCode(), shardCount);
+    }
+
+    int shardOfPost(long postId) {
+        int shard = PostIdGenerator.nodeOf(postId);
+        return shard < shardCount ? shard : -1;
+    }
+
+    // Groups friend references by the shard recorded in them
+    Map<Integer, List<String>> group(Collection<FriendRef> refs) {
+        Map<Integer, List<String>> groups = new HashMap<>();
+        for (FriendRef ref : refs) {
+            groups.computeIfAbsent(ref.shardId, k -> new ArrayList<>()).add(ref.username);
+        }
+        return groups;
+    }
+}
+
+// SocialNetwork partitioned across N in-process shards behind a router.
+// Reads are served by scatter-gather fan-out with a per-shard timeout; shards that
+// do not answer in time are skipped and counted in the query stats.
+class ShardedSocialNetwork {
+    private final Shard[] shards;
+    private final ShardRouter router;
+    private final long shardTimeoutMillis;
+    private final AtomicLong totalMessages = new AtomicLong();
+    private final AtomicLong searchIds = new AtomicLong();
+    private volatile QueryStats lastStats;
+
+    public ShardedSocialNetwork(int shardCount, long shardTimeoutMillis) {
+        // Each shard is a Snowflake node, and post IDs have room for 1024 nodes
+        if (shardCount <= 0 || shardCount > 1024) {
+            throw new IllegalArgumentException("Shard count must be between 1 and 1024");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.router = new ShardRouter(shardCount);
+        this.shardTimeoutMillis = shardTimeoutMillis;
+    }
+
+    // Sends a request to one shard and waits for the answer, or null on timeout
+    private <T> T ask(int shardId, Callable<T> request, QueryStats stats) {
+        stats.messages++;
+        totalMessages.incrementAndGet();
+        Future<T> future = shards[shardId].call(request);
+        try {
+            return future.get(shardTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            stats.timeouts++;
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard " + shardId + " failed", e.getCause());
+        }
+    }
+
+    // Sends one request per shard in parallel and collects the answers that arrive in time
+    private <T> Map<Integer, T> scatter(Map<Integer, Callable<T>> requests, QueryStats stats) {
+        Map<Integer, Future<T>> pending = new HashMap<>();
+        for (Map.Entry<Integer, Callable<T>> entry : requests.entrySet()) {
+            stats.messages++;
+            stats.shardsContacted++;
+            pending.put(entry.getKey(), shards[entry.getKey()].call(entry.getValue()));
+        }
+        totalMessages.addAndGet(requests.size());
+
+        Map<Integer, T> results = new HashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shardTimeoutMillis);
+        for (Map.Entry<Integer, Future<T>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                stats.timeouts++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Shard " + entry.getKey() + " failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    public void addUser(String username, String bio) {
+        QueryStats stats = new QueryStats("addUser");
+        int shard = router.shardOf(username);
+        Boolean added = ask(shard, () -> shards[shard].addUser(username, bio), stats);
+        lastStats = stats;
+        if (Boolean.TRUE.equals(added)) {
+            System.out.println(username + " has been added to the network (shard " + shard + ").");
+        } else {
+            System.out.println("User already exists.");
+        }
+    }
+
+    public void addFriend(String username, String friendUsername) {
+        QueryStats stats = new QueryStats("addFriend");
+        int userShard = router.shardOf(username);
+        int friendShard = router.shardOf(friendUsername);
+        Boolean friendExists = username.equals(friendUsername)
+                ? Boolean.FALSE : ask(friendShard, () -> shards[friendShard].hasUser(friendUsername), stats);
+        if (!Boolean.TRUE.equals(friendExists)) {
+            lastStats = stats;
+            System.out.println("Invalid users or already friends.");
+            return;
+        }
+
+        // Each side stores its half of the edge; cross-shard halves become friend references.
+        // The "already friends?" test runs inside the message that stores the half, so
+        // concurrent calls for the same pair, in either direction, store each half once.
+        AtomicBoolean userHalf = new AtomicBoolean();
+        AtomicBoolean friendHalf = new AtomicBoolean();
+        Boolean stored = storeHalf(userShard, username, friendUsername, friendShard, userHalf, stats);
+        if (Boolean.FALSE.equals(stored)) {
+            lastStats = stats;
+            System.out.println("Invalid users or already friends.");
+            return;
+        }
+        if (stored != null) {
+            // False here means a concurrent call already stored this half
+            stored = storeHalf(friendShard, friendUsername, username, userShard, friendHalf, stats);
+        }
+        lastStats = stats;
+        if (stored == null) {
+            undoHalf(userShard, username, friendUsername, userHalf, stats);
+            undoHalf(friendShard, friendUsername, username, friendHalf, stats);
+            System.out.println("Could not add " + friendUsername + " as a friend to " + username
+                    + ": a shard timed out, the change has been rolled back.");
+            return;
+        }
+        if (userShard != friendShard) {
+            stats.remoteEdges++;
+        }
+        System.out.println(friendUsername + " added as a friend to " + username);
+    }
+
+    // Stores one half of a friendship; 'stored' records whether this call added it
+    private Boolean storeHalf(int shard, String username, String friendUsername, int friendShard,
+                              AtomicBoolean stored, QueryStats stats) {
+        return ask(shard, () -> {
+            boolean added = shards[shard].addFriend(username, friendUsername, friendShard);
+            stored.set(added);
+            return added;
+        }, stats);
+    }
+
+    // Removes a half stored by a write that timed out. The write may still run, but each
+    // shard handles its messages in order, so the undo runs after it and sees the flag.
+    private void undoHalf(int shard, String username, String friendUsername, AtomicBoolean stored, QueryStats stats) {
+        stats.messages++;
+        totalMessages.incrementAndGet();
+        shards[shard].call(() -> {
+            if (stored.get()) {
+                shards[shard].removeFriend(username, friendUsername);
+            }
+            return null;
+        });
+    }
+
+    public long createPost(String username, String content) {
+        QueryStats stats = new QueryStats("createPost");
+        int shard = router.shardOf(username);
+        Post post = ask(shard, () -> shards[shard].createPost(username, content), stats);
+        lastStats = stats;
+        if (post != null) {
+            System.out.println(username + " posted #" + post.id + ": " + content);
+            return post.id;
+        }
+        System.out.println("User does not exist.");
+        return -1;
+    }
+
+    // Likes and comments go to the shard that owns the post, found from the node ID in the post ID
+    public void likePost(String username, long postId) {
+        QueryStats stats = new QueryStats("like");
+        int userShard = router.shardOf(username);
+        int postShard = router.shardOfPost(postId);
+        Boolean userExists = ask(userShard, () -> shards[userShard].hasUser(username), stats);
+        Integer result = !Boolean.TRUE.equals(userExists) || postShard < 0
+                ? null : ask(postShard, () -> shards[postShard].toggleLike(username, postId), stats);
+        lastStats = stats;
+        if (result == null || result == 0) {
+            System.out.println("Invalid post ID.");
+        } else if (result > 0) {
+            System.out.println(username + " liked a post.");
+        } else {
+            System.out.println(username + " unliked a post.");
+        }
+    }
+
+    public List<String> getPostLikers(long postId) {
+        QueryStats stats = new QueryStats("likers");
+        int postShard = router.shardOfPost(postId);
+        List<String> likers = postShard < 0 ? null : ask(postShard, () -> shards[postShard].likersOf(postId), stats);
+        lastStats = stats;
+        return likers == null ? Collections.emptyList() : likers;
+    }
+
+    public void showPostLikers(long postId) {
+        List<String> likers = getPostLikers(postId);
+        System.out.println("Liked by " + likers.size() + " users:");
+        for (String liker : likers) {
+            System.out.println(liker);
+        }
+    }
+
+    public void commentOnPost(String username, long postId, String comment) {
+        QueryStats stats = new QueryStats("comment");
+        int userShard = router.shardOf(username);
+        int postShard = router.shardOfPost(postId);
+        Boolean userExists = ask(userShard, () -> shards[userShard].hasUser(username), stats);
+        Boolean commented = !Boolean.TRUE.equals(userExists) || postShard < 0
+                ? null : ask(postShard, () -> shards[postShard].commentOnPost(postId, username + ": " + comment), stats);
+        lastStats = stats;
+        if (Boolean.TRUE.equals(commented)) {
+            System.out.println(username + " commented: " + comment);
+        } else {
+            System.out.println("Invalid post ID.");
+        }
+    }
+
+    private List<FriendRef> friendRefsOf(String username, QueryStats stats) {
+        int shard = router.shardOf(username);
+        List<FriendRef> friends = ask(shard, () -> shards[shard].friendRefsOf(username), stats);
+        return friends == null ? Collections.emptyList() : friends;
+    }
+
+    public List<Post> getSocialFeed(String username) {
+        QueryStats stats = new QueryStats("feed");
+        int home = router.shardOf(username);
+        List<FriendRef> friends = friendRefsOf(username, stats);
+
+        Map<Integer, Callable<List<Post>>> requests = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> group : router.group(friends).entrySet()) {
+            int shard = group.getKey();
+            List<String> members = group.getValue();
+            if (shard != home) {
+                stats.remoteEdges += members.size();
+            }
+            requests.put(shard, () -> shards[shard].postsOf(members));
+        }
+
+        List<Post> feed = new ArrayList<>();
+        for (List<Post> posts : scatter(requests, stats).values()) {
+            feed.addAll(posts);
+        }
+        feed.sort((p1, p2) -> p2.timestamp.compareTo(p1.timestamp));
+        lastStats = stats;
+        return feed;
+    }
+
+    public void showSocialFeed(String username) {
+        List<Post> feed = getSocialFeed(username);
+        System.out.println(username + "'s Social Feed:");
+        if (feed.isEmpty()) {
+            System.out.println("No posts in the feed.");
+        } else {
+            for (Post post : feed) {
+                post.display();
+                System.out.println("-----------------------------");
+            }
+        }
+    }
+
+    public List<Map.Entry<String, Integer>> getFriendSuggestions(String username) {
+        QueryStats stats = new QueryStats("suggestions");
+        int home = router.shardOf(username);
+        List<FriendRef> friends = friendRefsOf(username, stats);
+        Set<String> friendSet = new HashSet<>();
+        for (FriendRef friend : friends) {
+            friendSet.add(friend.username);
+        }
+
+        Map<Integer, Callable<Map<String, List<FriendRef>>>> requests = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> group : router.group(friends).entrySet()) {
+            int shard = group.getKey();
+            List<String> members = group.getValue();
+            if (shard != home) {
+                stats.remoteEdges += members.size();
+            }
+            requests.put(shard, () -> shards[shard].friendRefsOf(members));
+        }
+
+        Map<String, Integer> mutualFriends = new HashMap<>();
+        for (Map<String, List<FriendRef>> lists : scatter(requests, stats).values()) {
+            for (List<FriendRef> friendsOfFriend : lists.values()) {
+                for (FriendRef candidate : friendsOfFriend) {
+                    if (!candidate.username.equals(username) && !friendSet.contains(candidate.username)) {
+                        mutualFriends.merge(candidate.username, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> suggestions = new ArrayList<>(mutualFriends.entrySet());
+        suggestions.sort((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()));
+        lastStats = stats;
+        return suggestions;
+    }
+
+    public void suggestFriends(String username) {
+        List<Map.Entry<String, Integer>> suggestions = getFriendSuggestions(username);
+        System.out.println(username + "'s Friend Suggestions:");
+        for (Map.Entry<String, Integer> entry : suggestions) {
+            System.out.println(entry.getKey() + " (Mutual friends: " + entry.getValue() + ")");
+        }
+    }
+
+    // Distributed frontier-exchange BFS. The visited set is partitioned: each shard
+    // keeps the users it owns that the search has reached, with their parents. Every
+    // level the router routes the frontier to the owning shards by the shard in each
+    // reference; the shards mark and expand their part in parallel and send back only
+    // newly discovered neighbours. The router holds one level's frontier at a time,
+    // never the whole visited set, and walks the parent pointers back shard by shard
+    // once the end user turns up. Returns the path from start to end, or an empty list.
+    public List<String> getShortestPath(String startUser, String endUser) {
+        QueryStats stats = new QueryStats("shortestPath");
+        long search = searchIds.incrementAndGet();
+        List<PathHop> frontier = new ArrayList<>();
+        frontier.add(new PathHop(new FriendRef(startUser, router.shardOf(startUser)), null));
+
+        String endParent = null;
+        boolean found = startUser.equals(endUser);
+        while (!found && !frontier.isEmpty()) {
+            Map<Integer, List<PathHop>> groups = new HashMap<>();
+            for (PathHop hop : frontier) {
+                groups.computeIfAbsent(hop.user.shardId, k -> new ArrayList<>()).add(hop);
+            }
+            Map<Integer, Callable<List<PathHop>>> requests = new HashMap<>();
+            for (Map.Entry<Integer, List<PathHop>> group : groups.entrySet()) {
+                int shard = group.getKey();
+                List<PathHop> offered = group.getValue();
+                requests.put(shard, () -> shards[shard].expand(search, offered));
+            }
+
+            // Several shards may discover the same user; offer it once per level
+            Set<String> offeredNext = new HashSet<>();
+            List<PathHop> next = new ArrayList<>();
+            for (Map.Entry<Integer, List<PathHop>> expanded : scatter(requests, stats).entrySet()) {
+                for (PathHop hop : expanded.getValue()) {
+                    if (hop.user.shardId != expanded.getKey()) {
+                        stats.remoteEdges++;
+                    }
+                    if (hop.user.username.equals(endUser)) {
+                        found = true;
+                        endParent = hop.parent;
+                    } else if (offeredNext.add(hop.user.username)) {
+                        next.add(hop);
+                    }
+                }
+            }
+            frontier = next;
+        }
+
+        List<String> path = new ArrayList<>();
+        if (found) {
+            path.add(endUser);
+            for (String current = endParent; current != null && !current.isEmpty(); ) {
+                path.add(current);
+                String user = current;
+                int shard = router.shardOf(user);
+                current = ask(shard, () -> shards[shard].parentOf(search, user), stats);
+                if (current == null) {
+                    // A shard timed out; no complete path can be given
+                    path.clear();
+                }
+            }
+            Collections.reverse(path);
+        }
+        for (Shard shard : shards) {
+            stats.messages++;
+            totalMessages.incrementAndGet();
+            shard.call(() -> {
+                shard.endSearch(search);
+                return null;
+            });
+        }
+        lastStats = stats;
+        return path;
+    }
+
+    public void findShortestPath(String startUser, String endUser) {
+        QueryStats stats = new QueryStats("shortestPath");
+        Boolean startExists = ask(router.shardOf(startUser), () -> shards[router.shardOf(startUser)].hasUser(startUser), stats);
+        Boolean endExists = ask(router.shardOf(endUser), () -> shards[router.shardOf(endUser)].hasUser(endUser), stats);
+        if (!Boolean.TRUE.equals(startExists) || !Boolean.TRUE.equals(endExists)) {
+            System.out.println("Invalid users.");
+            return;
+        }
+
+        List<String> path = getShortestPath(startUser, endUser);
+        if (path.isEmpty()) {
+            System.out.println("No path found between " + startUser + " and " + endUser);
+        } else {
+            System.out.println("Shortest path between " + startUser + " and " + endUser + " is " + (path.size() - 1) + " steps: "
+                    + String.join(" -> ", path));
+        }
+    }
+
+    public QueryStats lastQueryStats() {
+        return lastStats;
+    }
+
+    public long totalMessages() {
+        return totalMessages.get();
+    }
+
+    public void printMetrics() {
+        System.out.println("Shards: " + shards.length);
+        long remoteRefs = 0;
+        for (Shard shard : shards) {
+            QueryStats stats = new QueryStats("metrics");
+            Integer users = ask(shard.id, shard::userCount, stats);
+            Integer refs = ask(shard.id, shard::remoteRefCount, stats);
+            System.out.println("  shard " + shard.id + ": " + (users == null || refs == null
+                    ? "timed out" : users + " users, " + refs + " remote references"));
+            remoteRefs += refs == null ? 0 : refs;
+        }
+        // Every cross-shard friendship is one reference on each side
+        System.out.println("Cross-shard friendships: " + remoteRefs / 2);
+        System.out.println("Messages sent: " + totalMessages.get());
+        if (lastStats != null) {
+            System.out.println("Last query: " + lastStats);
+        }
+    }
+
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,379 @@
+package Socialsphere;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Immutable AVL tree of friend usernames. insert() copies only the O(log d) nodes
+// on the search path and shares every other node with the previous version.
+class FriendSet {
+    final String username;
+    final FriendSet left, right;
+    final int height;
+    final int size;
+
+    private FriendSet(String username, FriendSet left, FriendSet right) {
+        this.username = username;
+        this.left = left;
+        this.right = right;
+        this.height = 1 + Math.max(height(left), height(right));
+        this.size = 1 + size(left) + size(right);
+    }
+
+    static int height(FriendSet node) {
+        return node == null ? 0 : node.height;
+    }
+
+    static int size(FriendSet node) {
+        return node == null ? 0 : node.size;
+    }
+
+    static boolean contains(FriendSet node, String username) {
+        while (node != null) {
+            int cmp = username.compareTo(node.username);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    static FriendSet insert(FriendSet node, String username) {
+        if (node == null) {
+            return new FriendSet(username, null, null);
+        }
+        int cmp = username.compareTo(node.username);
+        if (cmp == 0) {
+            return node;
+        }
+        FriendSet updated = cmp < 0
+                ? new FriendSet(node.username, insert(node.left, username), node.right)
+                : new FriendSet(node.username, node.left, insert(node.right, username));
+        return balance(updated);
+    }
+
+    private static FriendSet balance(FriendSet node) {
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            FriendSet left = node.left;
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(new FriendSet(node.username, left, node.right));
+        }
+        if (balance < -1) {
+            FriendSet right = node.right;
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(new FriendSet(node.username, node.left, right));
+        }
+        return node;
+    }
+
+    private static FriendSet rotateRight(FriendSet y) {
+        FriendSet x = y.left;
+        return new FriendSet(x.username, x.left, new FriendSet(y.username, x.right, y.right));
+    }
+
+    private static FriendSet rotateLeft(FriendSet x) {
+        FriendSet y = x.right;
+        return new FriendSet(y.username, new FriendSet(x.username, x.left, y.left), y.right);
+    }
+
+    // Appends the usernames in sorted order
+    static void collect(FriendSet node, List<String> into) {
+        if (node != null) {
+            collect(node.left, into);
+            into.add(node.username);
+            collect(node.right, into);
+        }
+    }
+}
+
+// Immutable list of a user's posts as rows of the post store, newest first. Adding
+// a post allocates one node and shares the rest of the list with older versions;
+// removing a post copies only the nodes newer than it.
+class PostList {
+    final long row;
+    final PostList next;
+    final int size;
+
+    private PostList(long row, PostList next) {
+        this.row = row;
+        this.next = next;
+        this.size = 1 + size(next);
+    }
+
+    static int size(PostList list) {
+        return list == null ? 0 : list.size;
+    }
+
+    static PostList add(PostList list, long row) {
+        return new PostList(row, list);
+    }
+
+    static PostList remove(PostList list, long row) {
+        int newer = 0;
+        PostList current = list;
+        while (current != null && current.row != row) {
+            newer++;
+            current = current.next;
+        }
+        if (current == null) {
+            return list;
+        }
+        long[] rows = new long[newer];
+        PostList copy = list;
+        for (int i = 0; i < newer; i++, copy = copy.next) {
+            rows[i] = copy.row;
+        }
+        PostList result = current.next;
+        for (int i = newer - 1; i >= 0; i--) {
+            result = new PostList(rows[i], result);
+        }
+        return result;
+    }
+
+    // Oldest first, matching the order posts were created in
+    static long[] toArray(PostList list) {
+        long[] rows = new long[size(list)];
+        int i = rows.length;
+        for (PostList current = list; current != null; current = current.next) {
+            rows[--i] = current.row;
+        }
+        return rows;
+    }
+}
+
+// One immutable version of a user's friends and posts, valid from 'epoch' on.
+// Versions form a chain from newest to oldest. Consecutive versions share
+// structure, so a new version only costs the delta of the write that made it.
+class UserVersion {
+    final long epoch;
+    final FriendSet friends;
+    final PostList posts;
+    volatile UserVersion older;
+
+    UserVersion(long epoch, FriendSet friends, PostList posts, UserVersion older) {
+        this.epoch = epoch;
+        this.friends = friends;
+        this.posts = posts;
+        this.older = older;
+    }
+}
+
+// Read-only view of the graph as of one epoch. Must be closed so that the
+// versions it pins can be reclaimed.
+class GraphView implements AutoCloseable {
+    final long epoch;
+    private final VersionedGraph graph;
+    private boolean closed;
+
+    GraphView(VersionedGraph graph, long epoch) {
+        this.graph = graph;
+        this.epoch = epoch;
+    }
+
+    private UserVersion versionOf(String username) {
+        UserVersion version = graph.head(username);
+        while (version != null && version.epoch > epoch) {
+            version = version.older;
+        }
+        return version;
+    }
+
+    public boolean contains(String username) {
+        return versionOf(username) != null;
+    }
+
+    public List<String> usernames() {
+        List<String> result = new ArrayList<>();
+        for (String username : graph.allUsernames()) {
+            if (contains(username)) {
+                result.add(username);
+            }
+        }
+        return result;
+    }
+
+    public List<String> friendsOf(String username) {
+        UserVersion version = versionOf(username);
+        if (version == null) {
+            return Collections.emptyList();
+        }
+        List<String> friends = new ArrayList<>(FriendSet.size(version.friends));
+        FriendSet.collect(version.friends, friends);
+        return friends;
+    }
+
+    public boolean isFriend(String username, String friendUsername) {
+        UserVersion version = versionOf(username);
+        return version != null && FriendSet.contains(version.friends, friendUsername);
+    }
+
+    // Post store rows, oldest first
+    public long[] postsOf(String username) {
+        UserVersion version = versionOf(username);
+        return PostList.toArray(version == null ? null : version.posts);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            graph.release(this);
+        }
+    }
+}
+
+// Multi-version store of users, friendships and post lists with snapshot isolation.
+// Writers are serialized among themselves and append a new UserVersion per touched
+// user, stamped with the next epoch; the epoch is published only after every version
+// of the write is in place, so a write becomes visible atomically. Readers pin the
+// current epoch and never take a lock. Versions that no pinned reader can see any
+// more are unlinked by reclaim().
+class VersionedGraph {
+    private static final int RECLAIM_INTERVAL = 64;
+
+    private final ConcurrentHashMap<String, UserVersion> heads = new ConcurrentHashMap<>();
+    private final Set<GraphView> readers = ConcurrentHashMap.newKeySet();
+    private final Set<String> multiVersion = new HashSet<>();  // guarded by writeLock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private volatile long currentEpoch;
+    private int writesSinceReclaim;
+
+    UserVersion head(String username) {
+        return heads.get(username);
+    }
+
+    Set<String> allUsernames() {
+        return heads.keySet();
+    }
+
+    public GraphView snapshot() {
+        while (true) {
+            long epoch = currentEpoch;
+            GraphView view = new GraphView(this, epoch);
+            readers.add(view);
+            // If a write slipped in before registration, a concurrent reclaim may
+            // not have seen us; pin the newer epoch instead
+            if (currentEpoch == epoch) {
+                return view;
+            }
+            readers.remove(view);
+        }
+    }
+
+    void release(GraphView view) {
+        readers.remove(view);
+    }
+
+    public int activeReaders() {
+        return readers.size();
+    }
+
+    public long reclaimedVersions() {
+        return reclaimed.get();
+    }
+
+    public void addUser(String username) {
+        writeLock.lock();
+        try {
+            long epoch = currentEpoch + 1;
+            heads.putIfAbsent(username, new UserVersion(epoch, null, null, null));
+            publish(epoch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void addFriendship(String username, String friendUsername) {
+        writeLock.lock();
+        try {
+            long epoch = currentEpoch + 1;
+            UserVersion user = heads.get(username);
+            UserVersion friend = heads.get(friendUsername);
+            append(username, epoch, FriendSet.insert(user.friends, friendUsername), user.posts);
+            append(friendUsername, epoch, FriendSet.insert(friend.friends, username), friend.posts);
+            publish(epoch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void addPost(String username, long row) {
+        writeLock.lock();
+        try {
+            long epoch = currentEpoch + 1;
+            UserVersion user = heads.get(username);
+            append(username, epoch, user.friends, PostList.add(user.posts, row));
+            publish(epoch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void removePost(String username, long row) {
+        writeLock.lock();
+        try {
+            long epoch = currentEpoch + 1;
+            UserVersion user = heads.get(username);
+            append(username, epoch, user.friends, PostList.remove(user.posts, row));
+            publish(epoch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Installs a new head version on top of the current one
+    private void append(String username, long epoch, FriendSet friends, PostList posts) {
+        heads.put(username, new UserVersion(epoch, friends, posts, heads.get(username)));
+        multiVersion.add(username);
+    }
+
+    private void publish(long epoch) {
+        currentEpoch = epoch;
+        if (++writesSinceReclaim >= RECLAIM_INTERVAL) {
+            reclaimLocked();
+        }
+    }
+
+    // Epoch-based reclamation: every version older than the newest one visible to
+    // the oldest pinned reader is unreachable and is cut off the chain
+    public void reclaim() {
+        writeLock.lock();
+        try {
+            reclaimLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void reclaimLocked() {
+        writesSinceReclaim = 0;
+        long oldest = currentEpoch;
+        for (GraphView view : readers) {
+            oldest = Math.min(oldest, view.epoch);
+        }
+
+        Iterator<String> it = multiVersion.iterator();
+        while (it.hasNext()) {
+            UserVersion head = heads.get(it.next());
+            UserVersion version = head;
+            while (version.epoch > oldest && version.older != null) {
+                version = version.older;
+            }
+            for (UserVersion dropped = version.older; dropped != null; dropped = dropped.older) {
+                reclaimed.incrementAndGet();
+            }
+            version.older = null;
+            if (version == head) {
+                it.remove();
+            }
+        }
+    }
+}
\ No newline at end of file